@@ -3,9 +3,11 @@ package com.example.zylo;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaRepositories(basePackages = "com.example.zylo.**.repository")
+@EnableScheduling
 public class ZyloApplication {
 
     public static void main(String[] args) {
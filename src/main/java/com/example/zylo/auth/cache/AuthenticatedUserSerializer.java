@@ -0,0 +1,54 @@
+package com.example.zylo.auth.cache;
+
+import com.example.zylo.auth.dto.AuthenticatedUser;
+import com.example.zylo.user.entity.User;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.*;
+
+// Compact binary format for cached principals (~30-60 bytes instead of a JSON User entity)
+// Layout: version(1) | id(8) | email(UTF) | role(UTF) | deleted(1)
+// Anything that isn't the current version (e.g. old JSON entries) reads as null = cache miss
+public class AuthenticatedUserSerializer implements RedisSerializer<AuthenticatedUser> {
+
+    private static final byte VERSION = 1;
+
+    @Override
+    public byte[] serialize(AuthenticatedUser user) throws SerializationException {
+        if (user == null) {
+            return new byte[0];
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(user.id());
+            out.writeUTF(user.email());
+            out.writeUTF(user.role().name());
+            out.writeBoolean(user.deleted());
+        } catch (IOException e) {
+            throw new SerializationException("Could not serialize principal", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public AuthenticatedUser deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != VERSION) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+            return new AuthenticatedUser(
+                    in.readLong(),
+                    in.readUTF(),
+                    User.Role.valueOf(in.readUTF()),
+                    in.readBoolean()
+            );
+        } catch (IOException | IllegalArgumentException e) {
+            // Corrupt or unknown entry, reload from the database
+            return null;
+        }
+    }
+}
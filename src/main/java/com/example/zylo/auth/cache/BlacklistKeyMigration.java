@@ -0,0 +1,105 @@
+package com.example.zylo.auth.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+// One-off migration of blacklist keys from "blacklist:{full token}" to "blacklist:{sha-256 digest}"
+// Old tokens have no jti, so JwtService.tokenId() resolves them to the same digest
+// RENAME keeps the TTL, so migrated entries still expire together with their token
+// Safe to run on every startup (nothing left to do once all keys are migrated)
+// Keys can disappear between SCAN and RENAMENX (migrated by another node, expired), those are skipped
+@Slf4j
+@Component
+public class BlacklistKeyMigration {
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final boolean enabled;
+    private final Counter migratedKeys;
+    private final Counter reclaimedBytes;
+
+    public BlacklistKeyMigration(
+            @Qualifier("jwtRedisTemplate") RedisTemplate<String, String> redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.blacklist.migrate-legacy-keys:true}") boolean enabled
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.migratedKeys = Counter.builder("auth.blacklist.migration.keys")
+                .description("Legacy full-token blacklist keys renamed to digest keys")
+                .register(meterRegistry);
+        this.reclaimedBytes = Counter.builder("auth.blacklist.migration.reclaimed")
+                .baseUnit("bytes")
+                .description("Key bytes saved by the blacklist key migration")
+                .register(meterRegistry);
+    }
+
+    // Runs before the Bloom filter rebuild, so the rebuild already sees the new keys
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+
+        long migrated = 0;
+        long savedBytes = 0;
+
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(TokenBlacklistFilter.KEY_PREFIX + "*")
+                .count(1000)
+                .build();
+
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                String key = keys.next();
+                String suffix = key.substring(TokenBlacklistFilter.KEY_PREFIX.length());
+                if (!TokenBlacklistFilter.isLegacyKeySuffix(suffix)) {
+                    continue;
+                }
+
+                String newKey = TokenBlacklistFilter.KEY_PREFIX + TokenDigest.of(suffix);
+                if (migrateKey(key, newKey)) {
+                    migrated++;
+                    savedBytes += key.length() - newKey.length();
+                }
+            }
+        } catch (Exception e) {
+            // Unmigrated keys keep working through the digest fallback, retry on next startup
+            log.error("Blacklist key migration failed after {} keys: {}", migrated, e.getMessage());
+        }
+
+        migratedKeys.increment(migrated);
+        reclaimedBytes.increment(savedBytes);
+        if (migrated > 0) {
+            log.info("Migrated {} legacy blacklist keys, {} key bytes reclaimed", migrated, savedBytes);
+        }
+    }
+
+    // false if the key is gone by now (RENAMENX fails with "no such key")
+    private boolean migrateKey(String key, String newKey) {
+        try {
+            // Digest key already there (written by another node's migration): drop the old one
+            if (!Boolean.TRUE.equals(redisTemplate.renameIfAbsent(key, newKey))) {
+                redisTemplate.delete(key);
+            }
+            return true;
+        } catch (DataAccessException e) {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+                throw e;
+            }
+            log.debug("Blacklist key already migrated or expired, skipped");
+            return false;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.zylo.auth.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Local Bloom filter in front of the Redis token blacklist (entries are token ids, see JwtService.tokenId)
+// Almost no token is ever blacklisted, so most requests get a definite "not blacklisted" without a Redis round trip
+// Only a possible hit (real hit or false positive) is confirmed with Redis
+//
+// Kept current on every node:
+// - Rebuilt from Redis (SCAN blacklist:*) at startup and periodically (drops expired entries, Bloom filters can't delete)
+// - New entries arrive through Redis pub/sub, published by JwtService.blacklistToken()
+// - Pub/sub is fire-and-forget, messages published while the subscription is down (reconnect, failover)
+//   are lost. Every (re)subscription or unsubscription puts the filter out of use (all checks go to Redis)
+//   until a rebuild that started after it has finished
+@Slf4j
+@Component
+public class TokenBlacklistFilter implements MessageListener, SubscriptionListener {
+
+    public static final String CHANNEL = "auth:blacklist";
+    public static final String KEY_PREFIX = "blacklist:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+
+    // Until the first rebuild succeeds every lookup goes to Redis (never miss a blacklisted token)
+    private volatile boolean ready = false;
+
+    // Entries added while a rebuild is running, replayed into the new filter
+    private volatile Queue<String> addedDuringRebuild;
+
+    // Subscription changes seen so far, a rebuild only marks the filter ready if none happened while it ran
+    private final AtomicLong subscriptionChanges = new AtomicLong();
+
+    private final Counter skippedLookups;
+    private final Counter redisLookups;
+
+    public TokenBlacklistFilter(
+            @Qualifier("jwtRedisTemplate") RedisTemplate<String, String> redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.blacklist-filter.expected-insertions:100000}") long expectedInsertions,
+            @Value("${jwt.blacklist-filter.false-positive-rate:0.001}") double falsePositiveRate
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+
+        this.skippedLookups = Counter.builder("auth.blacklist.filter.lookups")
+                .tag("result", "skipped")
+                .description("Blacklist checks answered locally by the Bloom filter")
+                .register(meterRegistry);
+        this.redisLookups = Counter.builder("auth.blacklist.filter.lookups")
+                .tag("result", "redis")
+                .description("Blacklist checks that needed a Redis lookup")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    // false = definitely not blacklisted, true = ask Redis
+    public boolean mightBeBlacklisted(String id) {
+        if (ready && !filter.mightContain(id)) {
+            skippedLookups.increment();
+            return false;
+        }
+        redisLookups.increment();
+        return true;
+    }
+
+    // Local add, other nodes get it through the pub/sub message
+    public void add(String id) {
+        // Queue before touching the filter, so an add racing with the swap is always replayed
+        Queue<String> pending = addedDuringRebuild;
+        if (pending != null) {
+            pending.add(id);
+        }
+        filter.put(id);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        add(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    // Called on the first subscription and again after every reconnect: entries may have been missed
+    // Rebuilt off the listener thread (SCAN over the whole blacklist)
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        subscriptionChanged();
+        CompletableFuture.runAsync(this::rebuild);
+    }
+
+    // Until subscribed again nothing arrives through pub/sub
+    @Override
+    public void onChannelUnsubscribed(byte[] channel, long count) {
+        subscriptionChanged();
+    }
+
+    private void subscriptionChanged() {
+        subscriptionChanges.incrementAndGet();
+        ready = false;
+    }
+
+    // After BlacklistKeyMigration
+    @Order(1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @Scheduled(
+            initialDelayString = "${jwt.blacklist-filter.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${jwt.blacklist-filter.rebuild-interval-ms:3600000}"
+    )
+    public synchronized void rebuild() {
+        long changesBefore = subscriptionChanges.get();
+        Queue<String> pending = new ConcurrentLinkedQueue<>();
+        addedDuringRebuild = pending;
+
+        try {
+            BloomFilter rebuilt = new BloomFilter(expectedInsertions, falsePositiveRate);
+            long count = 0;
+
+            ScanOptions options = ScanOptions.scanOptions()
+                    .match(KEY_PREFIX + "*")
+                    .count(1000)
+                    .build();
+            try (Cursor<String> keys = redisTemplate.scan(options)) {
+                while (keys.hasNext()) {
+                    rebuilt.put(toFilterId(keys.next()));
+                    count++;
+                }
+            }
+
+            // Swap first, then replay what arrived in the meantime
+            filter = rebuilt;
+            pending.forEach(rebuilt::put);
+            // Subscription dropped / re-established while scanning: the next rebuild marks it ready
+            ready = changesBefore == subscriptionChanges.get();
+
+            log.info("Blacklist filter rebuilt with {} entries ({} bits, {} hashes)",
+                    count, rebuilt.bitCount(), rebuilt.hashCount());
+        } catch (Exception e) {
+            // Keep the previous filter, if there never was one every check keeps going to Redis
+            log.error("Blacklist filter rebuild failed: {}", e.getMessage());
+        } finally {
+            addedDuringRebuild = null;
+        }
+    }
+
+    // Filter entries are token ids (jti or digest)
+    // Legacy keys that still hold the full token (not migrated yet) are mapped to the token digest
+    private String toFilterId(String key) {
+        String suffix = key.substring(KEY_PREFIX.length());
+        return isLegacyKeySuffix(suffix) ? TokenDigest.of(suffix) : suffix;
+    }
+
+    // Full JWTs always contain dots (header.payload.signature), jti and digests never do
+    public static boolean isLegacyKeySuffix(String suffix) {
+        return suffix.indexOf('.') >= 0;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.zylo.auth.cache;
+
+import com.example.zylo.auth.dto.AuthenticatedUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Two-tier cache for the principal loaded by JwtAuthFilter (AuthenticatedUser, not the User entity)
+// L1: Caffeine on each node (short TTL), a hit needs no network I/O and no deserialization
+// L2: Redis "user:session:{email}" (30 mins, compact binary value), shared by all nodes
+// Then MySQL (projection query, only the principal columns)
+//
+// evict() removes the Redis entry and tells every node (pub/sub) to drop its L1 copy
+// The short L1 TTL bounds staleness if an invalidation message is ever lost
+@Slf4j
+@Component
+public class UserSessionCache implements MessageListener {
+
+    public static final String KEY_PREFIX = "user:session:";
+    public static final String CHANNEL = "auth:session-invalidate";
+
+    private final RedisTemplate<String, AuthenticatedUser> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Cache<String, AuthenticatedUser> localCache;
+    private final Duration redisTtl;
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter databaseLoads;
+
+    public UserSessionCache(
+            @Qualifier("sessionRedisTemplate") RedisTemplate<String, AuthenticatedUser> redisTemplate,
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            MeterRegistry meterRegistry,
+            @Value("${auth.session-cache.local-ttl:30s}") Duration localTtl,
+            @Value("${auth.session-cache.local-max-size:10000}") long localMaxSize,
+            @Value("${auth.session-cache.redis-ttl:30m}") Duration redisTtl
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.redisTtl = redisTtl;
+        this.localCache = Caffeine.newBuilder()
+                .expireAfterWrite(localTtl)
+                .maximumSize(localMaxSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "userSessionLocal");
+
+        // Where each lookup was answered, hit ratio per tier = tier / total
+        this.localHits = tierCounter(meterRegistry, "local");
+        this.redisHits = tierCounter(meterRegistry, "redis");
+        this.databaseLoads = tierCounter(meterRegistry, "database");
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    // L1 -> L2 -> loader (MySQL), fills the tiers it missed
+    // Returns null if the loader finds nothing (not cached)
+    public AuthenticatedUser get(String email, Supplier<AuthenticatedUser> loader) {
+
+        // 1. Local
+        AuthenticatedUser user = localCache.getIfPresent(email);
+        if (user != null) {
+            localHits.increment();
+            return user;
+        }
+
+        // 2. Redis
+        String key = KEY_PREFIX + email;
+        user = redisTemplate.opsForValue().get(key);
+        if (user != null) {
+            redisHits.increment();
+            localCache.put(email, user);
+            return user;
+        }
+
+        // 3. Database
+        log.debug("Session cache MISS for user: {} - Loading from DB", email);
+        databaseLoads.increment();
+        user = loader.get();
+
+        if (user != null) {
+            redisTemplate.opsForValue().set(key, user, redisTtl.toMillis(), TimeUnit.MILLISECONDS);
+            localCache.put(email, user);
+        }
+        return user;
+    }
+
+    // Logout / role change: drop both tiers on every node
+    public void evict(String email) {
+        redisTemplate.delete(KEY_PREFIX + email);
+        localCache.invalidate(email);
+        // Plain string message (the object template would JSON encode it)
+        stringRedisTemplate.convertAndSend(CHANNEL, email);
+    }
+
+    // Callers that batch the Redis side into their own pipeline (JwtService login / logout)
+    // write "user:session:{email}" themselves and only update this node's L1 through these
+    public Duration redisTtl() {
+        return redisTtl;
+    }
+
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(AuthenticatedUser user) {
+        return ((RedisSerializer<AuthenticatedUser>) redisTemplate.getValueSerializer()).serialize(user);
+    }
+
+    public void putLocal(String email, AuthenticatedUser user) {
+        localCache.put(email, user);
+    }
+
+    public void invalidateLocal(String email) {
+        localCache.invalidate(email);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        localCache.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private static Counter tierCounter(MeterRegistry meterRegistry, String tier) {
+        return Counter.builder("auth.session.cache.lookups")
+                .tag("tier", tier)
+                .description("User session lookups by the tier that answered them")
+                .register(meterRegistry);
+    }
+}
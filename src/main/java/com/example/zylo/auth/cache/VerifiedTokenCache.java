@@ -0,0 +1,82 @@
+package com.example.zylo.auth.cache;
+
+import com.example.zylo.auth.dto.VerifiedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+// Bounded in-process cache of verified tokens
+// Key: SHA-256 digest of the token, Value: claims snapshot
+// Clients re-send the same access token for the whole session, so a hit skips HMAC verification and JSON parsing
+// Entries expire exactly when the token does (or earlier, when the cache is full)
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(
+            @Value("${jwt.verified-cache.max-size:10000}") long maxSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+
+        // Exposes hits, misses, evictions and size as cache.* metrics with tag cache=jwtVerifiedTokens
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtVerifiedTokens");
+    }
+
+    // Returns cached claims, or runs the verifier (which throws on invalid tokens, nothing is cached then)
+    public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        return cache.get(TokenDigest.of(token), digest -> verifier.apply(token));
+    }
+
+    public void invalidate(String token) {
+        invalidateDigest(TokenDigest.of(token));
+    }
+
+    public void invalidateDigest(String digest) {
+        cache.invalidate(digest);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        log.info("Verified token cache cleared");
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    // Per entry TTL = remaining lifetime of the token
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            Duration remaining = Duration.between(Instant.now(), value.expiresAt());
+            return Math.max(0, remaining.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
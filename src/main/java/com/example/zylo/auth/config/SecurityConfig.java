@@ -1,8 +1,11 @@
 package com.example.zylo.auth.config;
 
+import com.example.zylo.auth.crypto.BoundedPasswordEncoder;
 import com.example.zylo.auth.filter.JwtAuthFilter;
 import com.example.zylo.auth.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -20,6 +23,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity       // Enables @PreAuthorize in controllers
@@ -30,7 +35,7 @@ public class SecurityConfig {
     private final CustomUserDetailsService userDetailsService;
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
 
         http
                 .csrf(AbstractHttpConfigurer::disable)
@@ -64,6 +69,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.PUT, "/api/products/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/products/**").hasRole("ADMIN")
                         .requestMatchers("/api/devices/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                         // Authenticated (for Admin and Customer)
                         .requestMatchers("/api/cart/**").authenticated()
@@ -76,7 +82,7 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
 
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider(passwordEncoder))
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -84,18 +90,33 @@ public class SecurityConfig {
 
     // Wires UserDetailsService and Password Encoder together
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
 
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
+        // Re-hashes on successful login when the stored hash has a lower cost than security.bcrypt.strength
+        provider.setUserDetailsPasswordService(userDetailsService);
         return provider;
     }
 
     // BCrypt: For password hashing
-    // Cost factor set to 12 (strong but not to slow)
+    // Cost factor from security.bcrypt.strength (12 by default, strong but not to slow)
+    // Hashing runs on a bounded pool, so login / register bursts don't starve the request threads
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.bcrypt.strength:12}") int strength,
+            @Value("${security.password-hashing.threads:2}") int threads,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password-hashing.timeout:5s}") Duration timeout,
+            MeterRegistry meterRegistry
+    ) {
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(strength),
+                threads,
+                queueCapacity,
+                timeout,
+                meterRegistry
+        );
     }
 
     // Exposed so AuthService can use it
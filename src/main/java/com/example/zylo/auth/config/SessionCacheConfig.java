@@ -0,0 +1,29 @@
+package com.example.zylo.auth.config;
+
+import com.example.zylo.auth.cache.AuthenticatedUserSerializer;
+import com.example.zylo.auth.dto.AuthenticatedUser;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+@Configuration
+public class SessionCacheConfig {
+
+    // RedisTemplate for cached principals ("user:session:{email}")
+    // Uses the compact binary serializer instead of JSON
+    @Bean(name = "sessionRedisTemplate")
+    public RedisTemplate<String, AuthenticatedUser> sessionRedisTemplate(
+            RedisConnectionFactory connectionFactory) {
+
+        RedisTemplate<String, AuthenticatedUser> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new AuthenticatedUserSerializer());
+
+        template.afterPropertiesSet();
+        return template;
+    }
+}
@@ -1,13 +1,16 @@
 package com.example.zylo.auth.controller;
 
+import com.example.zylo.auth.dto.AuthenticatedUser;
 import com.example.zylo.auth.dto.LoginRequest;
 import com.example.zylo.auth.dto.LoginResponse;
 import com.example.zylo.auth.dto.RefreshTokenRequest;
 import com.example.zylo.auth.dto.RegisterRequest;
+import com.example.zylo.auth.dto.RevokeSessionsRequest;
+import com.example.zylo.auth.ratelimit.LoginRateLimiter;
 import com.example.zylo.auth.service.AuthService;
 import com.example.zylo.auth.service.JwtService;
 import com.example.zylo.common.dto.ApiResponse;
-import com.example.zylo.user.entity.User;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -23,6 +26,7 @@ public class AuthController {
 
     private final AuthService authService;
     private final JwtService jwtService;
+    private final LoginRateLimiter loginRateLimiter;
 
     // Register
     @PostMapping("/register")
@@ -36,8 +40,14 @@ public class AuthController {
     // Login
     @PostMapping("/login")
     public ResponseEntity<ApiResponse<LoginResponse>> login(
-            @Valid @RequestBody LoginRequest request
+            @Valid @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest
             ) {
+        // Rate limit per IP and per email before any user lookup / BCrypt check (429 if exceeded)
+        // Remote address = client IP from X-Forwarded-For when the request comes through a trusted proxy
+        // (server.forward-headers-strategy=native), not the load balancer's address
+        loginRateLimiter.checkLogin(httpRequest.getRemoteAddr(), request.getEmail());
+
         LoginResponse loginResponse = authService.login(request);
         return ResponseEntity.ok(ApiResponse.success("Login Successful", loginResponse));
     }
@@ -55,24 +65,19 @@ public class AuthController {
     @PostMapping("/logout")
     public ResponseEntity<ApiResponse<String>> logout(
             @RequestHeader("Authorization") String bearerToken,
-            @AuthenticationPrincipal User user
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
         String token = bearerToken.substring(7);
-        ApiResponse<String> response = authService.logout(token, user.getId());
+        ApiResponse<String> response = authService.logout(token, user.id());
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/me")
     public ResponseEntity<ApiResponse<LoginResponse.UserInfo>> me(
-            @AuthenticationPrincipal User user
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        LoginResponse.UserInfo userInfo = LoginResponse.UserInfo.builder()
-                .id(user.getId())
-                .email(user.getEmail())
-                .name(user.getName())
-                .role(user.getRole().name())
-                .build();
-
+        // Principal only carries id/email/role, the profile is loaded here
+        LoginResponse.UserInfo userInfo = authService.getUserInfo(user.id());
         return ResponseEntity.ok(ApiResponse.success(userInfo));
     }
 
@@ -84,4 +89,13 @@ public class AuthController {
         ApiResponse<String> response = authService.promoteToAdmin(email);
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/admin/revoke")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<String>> revokeSessions(
+            @Valid @RequestBody RevokeSessionsRequest request
+    ) {
+        ApiResponse<String> response = authService.revokeSessions(request);
+        return ResponseEntity.ok(response);
+    }
 }
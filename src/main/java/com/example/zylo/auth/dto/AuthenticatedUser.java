@@ -0,0 +1,39 @@
+package com.example.zylo.auth.dto;
+
+import com.example.zylo.user.entity.User;
+
+// Authentication principal for requests authenticated by JwtAuthFilter
+// Only what authorization needs (no password hash, reset token or timestamps)
+// Also the value of the user session cache, see AuthenticatedUserSerializer
+public record AuthenticatedUser(
+        Long id,
+        String email,
+        User.Role role,
+        boolean deleted
+) {
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(
+                user.getId(),
+                user.getEmail(),
+                user.getRole(),
+                Boolean.TRUE.equals(user.getIsDeleted())
+        );
+    }
+
+    // Stateless mode: principal straight from verified claims (no lookup)
+    // Deleted users and role changes are handled by the revocation epoch, see TokenRevocationService
+    public static AuthenticatedUser fromToken(VerifiedToken token) {
+        return new AuthenticatedUser(
+                token.userId(),
+                token.email(),
+                User.Role.valueOf(token.role()),
+                false
+        );
+    }
+
+    // role must start with "ROLE_" for spring security
+    public String authority() {
+        return "ROLE_" + role.name();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.zylo.auth.dto;
+
+import com.example.zylo.user.entity.User;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+// Admin bulk revocation, one scope per request:
+// userIds -> those users, role -> every user with that role, neither -> every user (issuedBefore required)
+// Tokens issued before issuedBefore are revoked, for userIds / role it defaults to now
+@Data
+public class RevokeSessionsRequest {
+
+    @Size(max = 500000, message = "At most 500000 user ids per request")
+    private List<Long> userIds;
+
+    private User.Role role;
+
+    private Instant issuedBefore;
+}
@@ -0,0 +1,25 @@
+package com.example.zylo.auth.dto;
+
+import java.time.Instant;
+
+// Claims of a token whose signature has already been verified
+// Kept small and immutable so it can be cached per token
+// tokenId: jti claim, or the token digest for tokens issued before jti existed
+public record VerifiedToken(
+        String tokenId,
+        Long userId,
+        String email,
+        String role,
+        String type,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+
+    public boolean isAccessToken() {
+        return "ACCESS".equals(type);
+    }
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
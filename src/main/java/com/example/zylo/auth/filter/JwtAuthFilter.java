@@ -1,8 +1,10 @@
 package com.example.zylo.auth.filter;
 
+import com.example.zylo.auth.cache.UserSessionCache;
+import com.example.zylo.auth.dto.AuthenticatedUser;
+import com.example.zylo.auth.dto.VerifiedToken;
 import com.example.zylo.auth.service.CustomUserDetailsService;
 import com.example.zylo.auth.service.JwtService;
-import com.example.zylo.user.entity.User;
 import com.example.zylo.user.repository.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -10,7 +12,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,7 +23,6 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
@@ -31,7 +32,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final CustomUserDetailsService customUserDetailsService;
     private final UserRepository userRepository;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final UserSessionCache userSessionCache;
+
+    // Stateless mode: authenticate from the verified claims without any user lookup
+    // (role changes and deletions go through TokenRevocationService instead)
+    @Value("${auth.stateless.enabled:false}")
+    private boolean statelessMode;
 
     // With RequiredArgsConstructor annotation, we don't need to create constructor injected with above class instances
 
@@ -51,13 +57,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         try {
-            // 2. Extract Email and token type from token
-            String email = jwtService.extractEmail(token);
-            String tokenType = jwtService.extractTokenType(token);
+            // 2. Verify the token once (or take the cached claims), then read email and token type
+            VerifiedToken verified = jwtService.verifyToken(token);
+            String email = verified.email();
 
             // 3. Only process ACCESS token here
             // (Refresh token should only hit /auth/refresh)
-            if (!"ACCESS".equals(tokenType)) {
+            if (!verified.isAccessToken()) {
                 filterChain.doFilter(request, response);
                 return;
             }
@@ -65,19 +71,23 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             // 4. Only set auth if not already authenticated
             if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                // 5. Load user - Redis first then MySQL
-                User user = loadUserFromCacheOrDB(email);
-
-                if (user == null) {
+                // 5. Validate token first (expiry, blacklist, revocation epoch), no user lookup for bad tokens
+                if (!jwtService.isTokenValid(verified, email)) {
                     filterChain.doFilter(request, response);
                     return;
                 }
 
-                // 6. Validate token
-                if (jwtService.isTokenValid(token, email)) {
+                // 6. Principal: straight from the claims in stateless mode,
+                // otherwise local cache, then Redis, then MySQL
+                AuthenticatedUser user = statelessMode
+                        ? AuthenticatedUser.fromToken(verified)
+                        : loadUserFromCacheOrDB(email);
+
+                // Unknown or soft deleted user
+                if (user != null && !user.deleted()) {
 
                     // 7. Build authentication object
-                    String role = "ROLE_" + user.getRole().name();
+                    String role = user.authority();
 
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(
@@ -103,35 +113,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    // Loading User (First from Redis, then MySQL)
-    // Saves user in Redis for 30 mins, so all the requests in the meantime are retrieved fast
-    // Without Redis ~50ms
+    // Loading User (local cache -> Redis -> MySQL), see UserSessionCache
+    // Without cache ~50ms
     // With Redis ~2ms
-    private User loadUserFromCacheOrDB(String email) {
-        String cacheKey = "user:session:" + email;
-
-        // Checking Redis
-        User cachedUser = (User) redisTemplate.opsForValue().get(cacheKey);
-
-        if (cachedUser != null) {
-            log.debug("Cache HIT for user: {}", email);
-            return cachedUser;
-        }
-
-        // Cache miss - Loading from MySQL
-        log.debug("Cache MISS for user: {} - Loading from DB", email);
-        User user = userRepository.findByEmail(email).orElse(null);
-
-        if (user != null) {
-            // save into redis (cache) for 30 mins
-            redisTemplate.opsForValue().set(
-                    cacheKey,
-                    user,
-                    30, // 30 Mins
-                    TimeUnit.MINUTES
-            );
-        }
-        return user;
+    // With local cache: no network I/O
+    private AuthenticatedUser loadUserFromCacheOrDB(String email) {
+        return userSessionCache.get(email, () -> userRepository.findPrincipalByEmail(email).orElse(null));
     }
 
     // Extract bearer token (from request)
@@ -0,0 +1,48 @@
+package com.example.zylo.auth.ratelimit;
+
+// In-memory token bucket, same refill rule as login_rate_limit.lua
+// Only used while Redis is unavailable
+class LocalTokenBucket {
+
+    private final LoginRateLimiter.BucketSpec spec;
+    private double tokens;
+    private long lastRefill;
+
+    LocalTokenBucket(LoginRateLimiter.BucketSpec spec) {
+        this.spec = spec;
+        this.tokens = spec.capacity();
+        this.lastRefill = -1;
+    }
+
+    // Takes one token from both buckets or from neither
+    // Returns 0 if allowed, otherwise millis until both have a token
+    static long tryAcquireBoth(LocalTokenBucket first, LocalTokenBucket second, long now) {
+        // Fixed lock order (the same bucket can't be both, keys have different prefixes)
+        LocalTokenBucket a = System.identityHashCode(first) <= System.identityHashCode(second) ? first : second;
+        LocalTokenBucket b = a == first ? second : first;
+
+        synchronized (a) {
+            synchronized (b) {
+                first.refill(now);
+                second.refill(now);
+                if (first.tokens >= 1 && second.tokens >= 1) {
+                    first.tokens -= 1;
+                    second.tokens -= 1;
+                    return 0;
+                }
+                return Math.max(first.waitMillis(), second.waitMillis());
+            }
+        }
+    }
+
+    private void refill(long now) {
+        if (lastRefill >= 0) {
+            tokens = Math.min(spec.capacity(), tokens + (now - lastRefill) * spec.refillPerMillis());
+        }
+        lastRefill = now;
+    }
+
+    private long waitMillis() {
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / spec.refillPerMillis());
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.zylo.auth.ratelimit;
+
+import com.example.zylo.common.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+// Token buckets for /auth/login, one per client IP and one per email
+// Checked before AuthenticationManager, so a rejected attempt costs one Redis call
+// (no user lookup, no BCrypt), credential stuffing can't turn into a CPU DoS
+//
+// Redis: one Lua script call (login_rate_limit.lua), buckets shared by every node
+// If Redis is unavailable: the same buckets kept locally on each node (limits then apply per node)
+@Slf4j
+@Component
+public class LoginRateLimiter {
+
+    static final String IP_KEY_PREFIX = "auth:ratelimit:ip:";
+    static final String EMAIL_KEY_PREFIX = "auth:ratelimit:email:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final DefaultRedisScript<Long> script;
+    private final boolean enabled;
+
+    private final BucketSpec ipBucket;
+    private final BucketSpec emailBucket;
+    private final long keyTtlMillis;
+
+    // Fallback buckets, keyed like the Redis keys
+    private final Cache<String, LocalTokenBucket> localBuckets;
+
+    private final Counter allowed;
+    private final Counter rejected;
+    private final Counter redisFallbacks;
+
+    public LoginRateLimiter(
+            @Qualifier("jwtRedisTemplate") RedisTemplate<String, String> redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${auth.login-rate-limit.enabled:true}") boolean enabled,
+            @Value("${auth.login-rate-limit.ip.capacity:20}") int ipCapacity,
+            @Value("${auth.login-rate-limit.ip.refill-per-minute:10}") int ipRefillPerMinute,
+            @Value("${auth.login-rate-limit.email.capacity:5}") int emailCapacity,
+            @Value("${auth.login-rate-limit.email.refill-per-minute:1}") int emailRefillPerMinute,
+            @Value("${auth.login-rate-limit.local-max-size:100000}") long localMaxSize
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.ipBucket = new BucketSpec(ipCapacity, ipRefillPerMinute);
+        this.emailBucket = new BucketSpec(emailCapacity, emailRefillPerMinute);
+
+        // Keys live until their bucket would be full again (nothing to remember after that)
+        this.keyTtlMillis = Math.max(ipBucket.fullRefillMillis(), emailBucket.fullRefillMillis());
+
+        this.script = new DefaultRedisScript<>();
+        this.script.setLocation(new ClassPathResource("scripts/login_rate_limit.lua"));
+        this.script.setResultType(Long.class);
+
+        this.localBuckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(keyTtlMillis))
+                .maximumSize(localMaxSize)
+                .build();
+
+        this.allowed = resultCounter(meterRegistry, "allowed");
+        this.rejected = resultCounter(meterRegistry, "rejected");
+        this.redisFallbacks = Counter.builder("auth.login.ratelimit.fallback")
+                .description("Login rate limit checks answered locally because Redis was unavailable")
+                .register(meterRegistry);
+    }
+
+    // Takes one token from the IP and the email bucket, throws TooManyRequestsException (429) if either is empty
+    public void checkLogin(String clientIp, String email) {
+        if (!enabled) {
+            return;
+        }
+
+        String ipKey = IP_KEY_PREFIX + clientIp;
+        // Case variants of an email are the same account
+        String emailKey = EMAIL_KEY_PREFIX + (email == null ? "" : email.trim().toLowerCase(Locale.ROOT));
+
+        long retryAfterMillis;
+        try {
+            retryAfterMillis = tryAcquireRedis(ipKey, emailKey);
+        } catch (DataAccessException e) {
+            log.warn("Login rate limiter falling back to local buckets: {}", e.getMessage());
+            redisFallbacks.increment();
+            retryAfterMillis = tryAcquireLocal(ipKey, emailKey);
+        }
+
+        if (retryAfterMillis > 0) {
+            rejected.increment();
+            log.warn("Login rate limited | ip: {} | email: {}", clientIp, email);
+            throw new TooManyRequestsException("Too many login attempts. Please try again later",
+                    Math.max(1, (retryAfterMillis + 999) / 1000));
+        }
+        allowed.increment();
+    }
+
+    // 0 if allowed, otherwise millis until a token is available
+    private long tryAcquireRedis(String ipKey, String emailKey) {
+        Long retryAfterMillis = redisTemplate.execute(
+                script,
+                List.of(ipKey, emailKey),
+                String.valueOf(ipBucket.capacity()),
+                String.valueOf(ipBucket.refillPerMillis()),
+                String.valueOf(emailBucket.capacity()),
+                String.valueOf(emailBucket.refillPerMillis()),
+                String.valueOf(keyTtlMillis)
+        );
+        // Never block logins on an unexpected reply
+        return retryAfterMillis != null ? retryAfterMillis : 0;
+    }
+
+    private long tryAcquireLocal(String ipKey, String emailKey) {
+        LocalTokenBucket ip = localBuckets.get(ipKey, k -> new LocalTokenBucket(ipBucket));
+        LocalTokenBucket mail = localBuckets.get(emailKey, k -> new LocalTokenBucket(emailBucket));
+        return LocalTokenBucket.tryAcquireBoth(ip, mail, System.currentTimeMillis());
+    }
+
+    private static Counter resultCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.login.ratelimit")
+                .tag("result", result)
+                .description("Login attempts checked by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    record BucketSpec(int capacity, int refillPerMinute) {
+
+        double refillPerMillis() {
+            return refillPerMinute / 60_000.0;
+        }
+
+        long fullRefillMillis() {
+            return (long) Math.ceil(capacity / refillPerMillis());
+        }
+    }
+}
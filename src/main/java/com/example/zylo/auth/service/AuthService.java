@@ -1,16 +1,18 @@
 package com.example.zylo.auth.service;
 
+import com.example.zylo.auth.cache.UserSessionCache;
 import com.example.zylo.auth.dto.*;
 import com.example.zylo.common.dto.ApiResponse;
 import com.example.zylo.user.entity.User;
 import com.example.zylo.user.repository.UserRepository;
+import com.example.zylo.user.service.LastLoginTracker;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -26,7 +28,9 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final UserSessionCache userSessionCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final LastLoginTracker lastLoginTracker;
 
     // Constructor injection with @Lazy to prevent circular dependency
     @Autowired
@@ -35,13 +39,17 @@ public class AuthService {
             PasswordEncoder passwordEncoder,
             JwtService jwtService,
             @Lazy AuthenticationManager authenticationManager,
-            RedisTemplate<String, Object> redisTemplate
+            UserSessionCache userSessionCache,
+            TokenRevocationService tokenRevocationService,
+            LastLoginTracker lastLoginTracker
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
-        this.redisTemplate = redisTemplate;
+        this.userSessionCache = userSessionCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.lastLoginTracker = lastLoginTracker;
     }
 
     // Register
@@ -73,30 +81,30 @@ public class AuthService {
     }
 
     // Login
-    @Transactional
+    // One SELECT (during authentication), no transaction held open
     public LoginResponse login(LoginRequest request) {
 
         // 1. Spring Security will validate credentials first
         // This calls CustomerDetailsService.loadUserByUsername() and compares password hash
         // (Throws exception if the credentials are wrong)
+        Authentication authentication;
         try {
-            authenticationManager.authenticate(
+            authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
             );
         } catch (BadCredentialsException e) {
             throw new BadCredentialsException("Invalid email or password");
         }
 
-        // 2. Load user from DB
-        User user = userRepository.findByEmail(request.getEmail()).orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        // 2. User loaded during authentication
+        User user = ((AuthUserDetails) authentication.getPrincipal()).getUser();
 
-        // 3. Generate tokens
+        // 3. Generate tokens (refresh token + session cache warm-up in one Redis pipeline)
         String accessToken = jwtService.generateAccessToken(user);
-        String refreshToken = jwtService.generateRefreshToken(user);
+        String refreshToken = jwtService.generateLoginRefreshToken(user);
 
-        // 4. Update last login timestamp
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+        // 4. Update last login timestamp (batched, written by LastLoginTracker)
+        lastLoginTracker.record(user.getId(), LocalDateTime.now());
 
         log.info("User logged in: {} | role: {}", user.getEmail(), user.getRole());
 
@@ -129,13 +137,11 @@ public class AuthService {
         // If the token is valid (Refresh Token), then fetch the user
         // 2. Get user from token
         String email = jwtService.extractEmail(refreshToken);
-        Long id = jwtService.extractUserId(refreshToken);
-
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        // 3. Validate refresh token exists in Redis
-        if (!jwtService.isRefreshTokenValid(refreshToken, id)) {
+        // 3. Validate refresh token exists in Redis and is not revoked (user, role or global epoch)
+        if (!jwtService.isRefreshTokenValid(refreshToken, user)) {
             throw new IllegalArgumentException("Refresh token expired or invalid. Please login again");
         }
 
@@ -162,21 +168,32 @@ public class AuthService {
     @Transactional
     public ApiResponse<String> logout(String accessToken, Long userId) {
 
-        // 1. Blacklist the access token in Redis (so it can't be used, even if it is not expired)
-        jwtService.blacklistToken(accessToken);
-
-        // 2. Invalidate refresh token in Redis
-        jwtService.invalidateRefreshToken(userId);
-
-        // 3. Clear user from Redis cache
-        String email = jwtService.extractEmail(accessToken);
-        redisTemplate.delete("user:session:" + email);
+        // Single Redis pipeline (token parsed once):
+        // 1. Blacklist the access token (so it can't be used, even if it is not expired)
+        // 2. Invalidate refresh token
+        // 3. Clear user from the session cache (Redis + local cache on every node)
+        jwtService.revokeLoginSession(accessToken, userId);
 
         log.info("User logged out, tokens invalidated for userId: {}", userId);
 
         return ApiResponse.success("Logged out successfully");
     }
 
+    // Current user profile (/auth/me)
+    @Transactional(readOnly = true)
+    public LoginResponse.UserInfo getUserInfo(Long userId) {
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+
+        return LoginResponse.UserInfo.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .name(user.getName())
+                .role(user.getRole().name())
+                .build();
+    }
+
     // Promote to Admin
     @Transactional
     public ApiResponse<String> promoteToAdmin(String email) {
@@ -191,10 +208,37 @@ public class AuthService {
         user.setRole(User.Role.ADMIN);
         userRepository.save(user);
 
-        // Clear Redis cache, so new role takes effect immediately
-        redisTemplate.delete("user:session:" + email);
+        // Clear session cache on every node, so new role takes effect immediately
+        userSessionCache.evict(email);
+
+        // Revoke issued tokens, they still carry the old role (matters in stateless mode)
+        // The user logs in again to get tokens with the new role
+        tokenRevocationService.revokeUser(user.getId());
 
         log.info("User promoted to Admin: {}", email);
         return ApiResponse.success("User " + email + " promoted to Admin");
     }
+
+    // Bulk revocation (admin): users, a role, or everyone
+    // Raises revocation epochs instead of deleting refresh tokens / blacklisting access tokens one by one,
+    // both token types are checked against the epochs
+    public ApiResponse<String> revokeSessions(RevokeSessionsRequest request) {
+
+        if (request.getUserIds() != null && !request.getUserIds().isEmpty()) {
+            tokenRevocationService.revokeUsers(request.getUserIds(), request.getIssuedBefore());
+            return ApiResponse.success("Sessions revoked for " + request.getUserIds().size() + " users");
+        }
+
+        if (request.getRole() != null) {
+            tokenRevocationService.revokeRole(request.getRole(), request.getIssuedBefore());
+            return ApiResponse.success("Sessions revoked for role " + request.getRole());
+        }
+
+        // Everyone: only with an explicit cut-off, so an empty request can't log out every user
+        if (request.getIssuedBefore() == null) {
+            throw new IllegalArgumentException("userIds, role or issuedBefore is required");
+        }
+        tokenRevocationService.revokeAll(request.getIssuedBefore());
+        return ApiResponse.success("Sessions issued before " + request.getIssuedBefore() + " revoked");
+    }
 }
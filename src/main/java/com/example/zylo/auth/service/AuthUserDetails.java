@@ -0,0 +1,47 @@
+package com.example.zylo.auth.service;
+
+import com.example.zylo.user.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+// UserDetails backed by the loaded User entity
+// DaoAuthenticationProvider puts it in the Authentication it returns, so AuthService.login
+// gets the user from authentication instead of loading it a second time
+public class AuthUserDetails implements UserDetails {
+
+    private final User user;
+
+    public AuthUserDetails(User user) {
+        this.user = user;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    // After a password re-hash (cost upgrade)
+    public AuthUserDetails withPasswordHash(String passwordHash) {
+        user.setPasswordHash(passwordHash);
+        return this;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        // role must start with "ROLE_" for spring security
+        return Collections.singleton(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return user.getPasswordHash();
+    }
+
+    @Override
+    public String getUsername() {
+        return user.getEmail();
+    }
+}
@@ -4,19 +4,17 @@ import com.example.zylo.user.entity.User;
 import com.example.zylo.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collections;
-
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -40,25 +38,18 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         log.debug("User found: {} with role: {}", email, user.getRole());
 
-        return buildUserDetails(user);
+        // Carries the entity, so login doesn't load the user again
+        return new AuthUserDetails(user);
     }
 
-    private UserDetails buildUserDetails(User user) {
-
-        // role must start with "ROLE_" for spring security
-        String role = "ROLE_" + user.getRole().name();
+    // Upgrade-on-login: called by DaoAuthenticationProvider after a successful login
+    // when the stored hash was made with a lower BCrypt cost than the configured one
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordHash(user.getUsername(), newPassword);
+        log.info("Password hash upgraded for user: {}", user.getUsername());
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPasswordHash())
-                .authorities(Collections.singleton(
-                        new SimpleGrantedAuthority(role)
-                ))
-                // These other details can also be used
-                // .accountExpired(false)
-                // .accountLocked(false)
-                // .credentialsExpired(false)
-                // .disabled(user.getIsDeleted())
-                .build();
+        return ((AuthUserDetails) user).withPasswordHash(newPassword);
     }
 }
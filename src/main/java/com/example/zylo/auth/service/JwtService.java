@@ -1,21 +1,36 @@
 package com.example.zylo.auth.service;
 
+import com.example.zylo.auth.cache.TokenBlacklistFilter;
+import com.example.zylo.auth.cache.TokenDigest;
+import com.example.zylo.auth.cache.UserSessionCache;
+import com.example.zylo.auth.cache.VerifiedTokenCache;
+import com.example.zylo.auth.dto.AuthenticatedUser;
+import com.example.zylo.auth.dto.VerifiedToken;
 import com.example.zylo.user.entity.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
@@ -33,9 +48,45 @@ public class JwtService {
     private Long refreshExpiration;
 
     private final RedisTemplate<String, String> redisTemplate;
-
-    public JwtService(@Qualifier("jwtRedisTemplate") RedisTemplate<String, String> redisTemplate) {
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenBlacklistFilter blacklistFilter;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserSessionCache userSessionCache;
+    private final DistributionSummary blacklistKeyBytes;
+
+    // Built once at startup, both are immutable and thread-safe
+    // (Decoding the secret and building a parser on every call was the hot spot of the auth filter)
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    public JwtService(
+            @Qualifier("jwtRedisTemplate") RedisTemplate<String, String> redisTemplate,
+            VerifiedTokenCache verifiedTokenCache,
+            TokenBlacklistFilter blacklistFilter,
+            TokenRevocationService tokenRevocationService,
+            UserSessionCache userSessionCache,
+            MeterRegistry meterRegistry
+    ) {
         this.redisTemplate = redisTemplate;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.blacklistFilter = blacklistFilter;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userSessionCache = userSessionCache;
+
+        // Size of blacklist keys sent to Redis (per write and per lookup)
+        this.blacklistKeyBytes = DistributionSummary.builder("auth.blacklist.key.size")
+                .baseUnit("bytes")
+                .description("Size of blacklist keys written to / looked up in Redis")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+        this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     // Generate Access Token
@@ -54,11 +105,7 @@ public class JwtService {
 
     // Generate Refresh Token
     public String generateRefreshToken(User user) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", user.getId());
-        claims.put("type", "REFRESH");
-
-        String refreshToken = buildToken(claims, user.getEmail(), refreshExpiration);
+        String refreshToken = buildRefreshToken(user);
 
         // Storing refresh token in redis
         // Key: "refresh_token:{userId}"
@@ -74,36 +121,76 @@ public class JwtService {
         return refreshToken;
     }
 
+    // Login: refresh token stored and the user's session cache entry warmed in one Redis pipeline
+    // (the first authenticated request after login is then answered without a DB lookup)
+    public String generateLoginRefreshToken(User user) {
+        String refreshToken = buildRefreshToken(user);
+        AuthenticatedUser principal = AuthenticatedUser.from(user);
+
+        byte[] refreshKey = bytes("refresh_token:" + user.getId());
+        byte[] sessionKey = bytes(UserSessionCache.KEY_PREFIX + user.getEmail());
+        byte[] sessionValue = userSessionCache.serialize(principal);
+        long sessionTtl = userSessionCache.redisTtl().toMillis();
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().set(refreshKey, bytes(refreshToken),
+                    Expiration.milliseconds(refreshExpiration), SetOption.upsert());
+            connection.stringCommands().set(sessionKey, sessionValue,
+                    Expiration.milliseconds(sessionTtl), SetOption.upsert());
+            return null;
+        });
+
+        userSessionCache.putLocal(user.getEmail(), principal);
+        return refreshToken;
+    }
+
+    // Refresh token claims, shared by both ways of storing it (generateRefreshToken / generateLoginRefreshToken)
+    private String buildRefreshToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", user.getId());
+        claims.put("role", user.getRole().name());   // Checked against the role revocation epoch
+        claims.put("type", "REFRESH");
+
+        return buildToken(claims, user.getEmail(), refreshExpiration);
+    }
+
     // Token Builder
     public String buildToken(Map<String, Object> claims, String subject, Long expiration) {
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())   // jti, short fixed size id used for blacklisting
                 .subject(subject)   // email
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())  // HS256 by default
+                .signWith(signingKey)  // HS256 by default
                 .compact();
     }
 
     // Validate Token
     public boolean isTokenValid(String token, String email) {
         try {
-            String extractedEmail = extractEmail(token);
-            boolean notExpired = !isTokenExpired(token);
-            boolean emailMatches = extractedEmail.equals(email);
-
-            // Checking if the token is blacklisted (logged out)
-            boolean notBlackListed = !isTokenBlacklisted(token);
-
-            // Should not be expired, email mismatch and blacklisted (logged out)
-            return notExpired && emailMatches && notBlackListed;
-
+            return isTokenValid(verifyToken(token), email);
         } catch (JwtException e) {
             log.warn("JWT validation failed: {}", e.getMessage());
             return false;
         }
     }
 
+    // Validate an already verified token (no re-parsing of the token)
+    public boolean isTokenValid(VerifiedToken verified, String email) {
+        boolean notExpired = !verified.isExpired();
+        boolean emailMatches = verified.email().equals(email);
+
+        // Checking if the token is blacklisted (logged out)
+        boolean notBlackListed = !isTokenBlacklisted(verified.tokenId());
+
+        // Checking if all tokens of the user were revoked after this one was issued (role change, deletion)
+        boolean notRevoked = !tokenRevocationService.isRevoked(verified);
+
+        // Should not be expired, email mismatch, blacklisted (logged out) or revoked
+        return notExpired && emailMatches && notBlackListed && notRevoked;
+    }
+
     // Helper methods
     public String extractEmail(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -135,45 +222,132 @@ public class JwtService {
         return claimResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    // Verifies the signature and parses the token once
+    // Callers that need several claims should use this instead of the extractX() helpers
+    public Claims parseClaims(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+
+    // Verified claims snapshot, served from the in-process cache when the token was seen before
+    // Throws JwtException for invalid tokens (same as parseClaims)
+    public VerifiedToken verifyToken(String token) {
+        return verifiedTokenCache.get(token, t -> toVerifiedToken(parseClaims(t), t));
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private VerifiedToken toVerifiedToken(Claims claims, String token) {
+        return new VerifiedToken(
+                tokenId(claims, token),
+                claims.get("userId", Long.class),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.get("type", String.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration().toInstant()
+        );
+    }
+
+    private Claims extractAllClaims(String token) {
+        return parseClaims(token);
     }
 
     // Blacklist Token (logout)
     // When the user logs out, add token to Redis Blacklist
     // So, even if the token is valid, it won't work
+    // Key: "blacklist:{jti}" (fixed size, instead of the full token)
     public void blacklistToken(String token) {
-        String email = extractEmail(token);
-        Date expiry = extractExpiration(token);
+        Claims claims = parseClaims(token);
+        String email = claims.getSubject();
+        Date expiry = claims.getExpiration();
 
         // ttl = time to live
         long ttl = expiry.getTime() - System.currentTimeMillis();
         if (ttl > 0) {
             // Stores in redis until naturally expires
-            String blacklistKey = "blacklist:" + token;
+            String tokenId = tokenId(claims, token);
+            String blacklistKey = TokenBlacklistFilter.KEY_PREFIX + tokenId;
             redisTemplate.opsForValue().set(
                     blacklistKey,
                     email,
                     ttl,
                     TimeUnit.MILLISECONDS
             );
+            blacklistKeyBytes.record(blacklistKey.length());
+
+            // Local Bloom filter now, other nodes through pub/sub
+            blacklistFilter.add(tokenId);
+            redisTemplate.convertAndSend(TokenBlacklistFilter.CHANNEL, tokenId);
+
             log.info("Token blacklisted for user: {}", email);
         }
+
+        // Drop the cached claims, so the next request goes through full validation
+        verifiedTokenCache.invalidate(token);
     }
 
-    public boolean isTokenBlacklisted(String token) {
-        String blacklistKey = "blacklist:" + token;
+    // Logout: everything the old sequence did (blacklist SET + publish, refresh token DEL,
+    // session cache DEL + publish) in one Redis pipeline, with the access token parsed once
+    // Returns the email of the logged out user
+    public String revokeLoginSession(String accessToken, Long userId) {
+        VerifiedToken verified = verifyToken(accessToken);
+        String email = verified.email();
+        String tokenId = verified.tokenId();
+        String blacklistKey = TokenBlacklistFilter.KEY_PREFIX + tokenId;
+
+        // ttl = time to live, blacklist entry only needed until the token expires on its own
+        long ttl = verified.expiresAt().toEpochMilli() - System.currentTimeMillis();
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            // 1. Blacklist the access token, other nodes add it to their Bloom filter
+            if (ttl > 0) {
+                connection.stringCommands().set(bytes(blacklistKey), bytes(email),
+                        Expiration.milliseconds(ttl), SetOption.upsert());
+                connection.publish(bytes(TokenBlacklistFilter.CHANNEL), bytes(tokenId));
+            }
+
+            // 2. Refresh token and cached session
+            connection.keyCommands().del(
+                    bytes("refresh_token:" + userId),
+                    bytes(UserSessionCache.KEY_PREFIX + email)
+            );
+
+            // 3. Other nodes drop their local session entry
+            connection.publish(bytes(UserSessionCache.CHANNEL), bytes(email));
+            return null;
+        });
+
+        // Local side effects, no network I/O
+        if (ttl > 0) {
+            blacklistKeyBytes.record(blacklistKey.length());
+            blacklistFilter.add(tokenId);
+        }
+        verifiedTokenCache.invalidate(accessToken);
+        userSessionCache.invalidateLocal(email);
+
+        log.info("Token blacklisted and refresh token invalidated for user: {}", email);
+        return email;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // tokenId: jti (or digest for tokens without jti), see tokenId()
+    public boolean isTokenBlacklisted(String tokenId) {
+        // Bloom filter answers "definitely not" locally, Redis only confirms possible hits
+        if (!blacklistFilter.mightBeBlacklisted(tokenId)) {
+            return false;
+        }
+        String blacklistKey = TokenBlacklistFilter.KEY_PREFIX + tokenId;
+        blacklistKeyBytes.record(blacklistKey.length());
         return Boolean.TRUE.equals(redisTemplate.hasKey(blacklistKey));
     }
 
+    // Blacklist id of a token: the jti claim
+    // Tokens issued before jti was added fall back to the SHA-256 digest (same id the key migration uses)
+    public static String tokenId(Claims claims, String token) {
+        return claims.getId() != null ? claims.getId() : TokenDigest.of(token);
+    }
+
     // Invalidate refresh token (Logout)
     public void invalidateRefreshToken(Long userId) {
         String redisKey = "refresh_token:" + userId;
@@ -181,16 +355,15 @@ public class JwtService {
         log.info("Refresh token invalidated for userId: {}", userId);
     }
 
-    public boolean isRefreshTokenValid(String token, Long userId) {
-        String redisKey = "refresh_token:" + userId;
+    // Revocation is checked against the user's current role as well, refresh tokens issued
+    // before they carried the role claim are still covered by role revocation
+    public boolean isRefreshTokenValid(String token, User user) {
+        String redisKey = "refresh_token:" + user.getId();
         String storedToken = redisTemplate.opsForValue().get(redisKey);
-        return token.equals(storedToken) && isTokenExpired(token);
-    }
-
-    // Signing Key
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        VerifiedToken verified = verifyToken(token);
+        return token.equals(storedToken)
+                && !verified.isExpired()
+                && !tokenRevocationService.isRevoked(verified, user.getRole().name());
     }
 
     public Long getJwtExpirationTime() {
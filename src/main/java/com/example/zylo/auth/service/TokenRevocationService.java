@@ -0,0 +1,208 @@
+package com.example.zylo.auth.service;
+
+import com.example.zylo.auth.dto.VerifiedToken;
+import com.example.zylo.user.entity.User;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Revocation epochs: a token is revoked if it was issued before the epoch of its user, its role
+// or the global epoch (whichever is latest)
+// Lets the auth filter trust token claims (stateless mode) and still react to role changes and deletions,
+// without one blacklist entry per token
+//
+// Redis: "auth:epoch:user:{userId}", "auth:epoch:role:{ROLE}", "auth:epoch:global" = epoch seconds
+// (expire after the refresh token lifetime, by then every token issued before them has expired anyway)
+// Epochs only move forward (raise_epoch.lua), bulk revocation is one script call per chunk of users
+// instead of a DEL per session
+// Locally: epochs cached per user / scope (missing epochs are cached as 0), dropped through pub/sub on change
+// Granularity is one second (JWT iat), tokens issued in the same second as the revocation stay valid
+@Slf4j
+@Service
+public class TokenRevocationService implements MessageListener {
+
+    public static final String USER_EPOCH_PREFIX = "auth:epoch:user:";
+    public static final String ROLE_EPOCH_PREFIX = "auth:epoch:role:";
+    public static final String GLOBAL_EPOCH_KEY = "auth:epoch:global";
+    public static final String CHANNEL = "auth:epoch";
+
+    // Pub/sub message telling nodes to drop every cached user epoch (bulk revocation)
+    private static final String ALL_USERS = "*";
+
+    // Users per script call in bulk revocation
+    private static final int USER_BATCH_SIZE = 1000;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final LoadingCache<Long, Long> userEpochs;
+
+    // Role and global epochs, keyed by their Redis key (a handful of entries)
+    private final LoadingCache<String, Long> scopeEpochs;
+
+    private final DefaultRedisScript<Long> raiseEpochScript;
+
+    @Value("${jwt.refresh-expiration}")
+    private Long refreshExpiration;
+
+    public TokenRevocationService(
+            @Qualifier("jwtRedisTemplate") RedisTemplate<String, String> redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            MeterRegistry meterRegistry,
+            @Value("${auth.revocation.local-ttl:60s}") Duration localTtl,
+            @Value("${auth.revocation.local-max-size:100000}") long localMaxSize
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.userEpochs = Caffeine.newBuilder()
+                .expireAfterWrite(localTtl)
+                .maximumSize(localMaxSize)
+                .recordStats()
+                .build(this::loadUserEpoch);
+        this.scopeEpochs = Caffeine.newBuilder()
+                .expireAfterWrite(localTtl)
+                .build(this::loadEpoch);
+
+        this.raiseEpochScript = new DefaultRedisScript<>();
+        this.raiseEpochScript.setLocation(new ClassPathResource("scripts/raise_epoch.lua"));
+        this.raiseEpochScript.setResultType(Long.class);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, userEpochs, "revocationEpochs");
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    // Cheap check: local lookups, Redis only on the first token of a user per local TTL
+    public boolean isRevoked(VerifiedToken token) {
+        return isRevoked(token, null);
+    }
+
+    // Also checks the epoch of the user's current role (refresh: the user is loaded anyway,
+    // and refresh tokens without a role claim must not escape role revocation)
+    public boolean isRevoked(VerifiedToken token, String currentRole) {
+        if (token.userId() == null || token.issuedAt() == null) {
+            return false;
+        }
+        long issuedAt = token.issuedAt().getEpochSecond();
+        return issuedAt < userEpochs.get(token.userId())
+                || issuedAt < scopeEpochs.get(GLOBAL_EPOCH_KEY)
+                || revokedByRole(issuedAt, token.role())
+                || (currentRole != null && !currentRole.equals(token.role()) && revokedByRole(issuedAt, currentRole));
+    }
+
+    private boolean revokedByRole(long issuedAt, String role) {
+        return role != null && issuedAt < scopeEpochs.get(ROLE_EPOCH_PREFIX + role);
+    }
+
+    // Revokes every token of the user issued before now (role change, deletion, "log out everywhere")
+    public void revokeUser(Long userId) {
+        long epoch = Instant.now().getEpochSecond();
+        raiseEpoch(List.of(USER_EPOCH_PREFIX + userId), epoch);
+
+        userEpochs.invalidate(userId);
+        redisTemplate.convertAndSend(CHANNEL, String.valueOf(userId));
+
+        log.info("Tokens revoked for userId: {}", userId);
+    }
+
+    // Bulk: tokens of the given users issued before the instant
+    // One script call per USER_BATCH_SIZE users, one invalidation message for all of them
+    public void revokeUsers(Collection<Long> userIds, Instant issuedBefore) {
+        long epoch = toEpoch(issuedBefore);
+
+        List<String> batch = new ArrayList<>(Math.min(userIds.size(), USER_BATCH_SIZE));
+        for (Long userId : userIds) {
+            batch.add(USER_EPOCH_PREFIX + userId);
+            if (batch.size() == USER_BATCH_SIZE) {
+                raiseEpoch(batch, epoch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            raiseEpoch(batch, epoch);
+        }
+
+        userEpochs.invalidateAll();
+        redisTemplate.convertAndSend(CHANNEL, ALL_USERS);
+
+        log.info("Tokens issued before {} revoked for {} users", issuedBefore, userIds.size());
+    }
+
+    // Bulk: tokens of every user with the role, a single key
+    public void revokeRole(User.Role role, Instant issuedBefore) {
+        revokeScope(ROLE_EPOCH_PREFIX + role.name(), issuedBefore);
+        log.info("Tokens issued before {} revoked for role: {}", issuedBefore, role);
+    }
+
+    // Bulk: every token issued before the instant, a single key
+    public void revokeAll(Instant issuedBefore) {
+        revokeScope(GLOBAL_EPOCH_KEY, issuedBefore);
+        log.info("All tokens issued before {} revoked", issuedBefore);
+    }
+
+    private void revokeScope(String key, Instant issuedBefore) {
+        raiseEpoch(List.of(key), toEpoch(issuedBefore));
+        scopeEpochs.invalidate(key);
+        redisTemplate.convertAndSend(CHANNEL, key);
+    }
+
+    private void raiseEpoch(List<String> keys, long epoch) {
+        redisTemplate.execute(raiseEpochScript, keys, String.valueOf(epoch), String.valueOf(refreshExpiration));
+    }
+
+    // A future instant would also revoke tokens issued from now until then
+    private static long toEpoch(Instant issuedBefore) {
+        Instant now = Instant.now();
+        if (issuedBefore == null) {
+            return now.getEpochSecond();
+        }
+        if (issuedBefore.isAfter(now)) {
+            throw new IllegalArgumentException("issuedBefore must not be in the future");
+        }
+        return issuedBefore.getEpochSecond();
+    }
+
+    // Message: a userId, ALL_USERS, or the key of a role / global epoch
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (ALL_USERS.equals(body)) {
+            userEpochs.invalidateAll();
+        } else if (body.startsWith(ROLE_EPOCH_PREFIX) || body.equals(GLOBAL_EPOCH_KEY)) {
+            scopeEpochs.invalidate(body);
+        } else {
+            userEpochs.invalidate(Long.valueOf(body));
+        }
+    }
+
+    private Long loadUserEpoch(Long userId) {
+        return loadEpoch(USER_EPOCH_PREFIX + userId);
+    }
+
+    private Long loadEpoch(String key) {
+        String epoch = redisTemplate.opsForValue().get(key);
+        return epoch != null ? Long.parseLong(epoch) : 0L;
+    }
+}
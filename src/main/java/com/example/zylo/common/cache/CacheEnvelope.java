@@ -0,0 +1,7 @@
+package com.example.zylo.common.cache;
+
+// What StampedeProtectedCache stores in Redis: the value plus when it goes stale
+// softExpiresAt: after this the value is still served (until the Redis TTL), but refreshed in the background
+// computeMillis: how long the loader took, drives the probabilistic early refresh
+public record CacheEnvelope(Object value, long softExpiresAt, long computeMillis) {
+}
@@ -0,0 +1,30 @@
+package com.example.zylo.common.cache;
+
+import com.example.zylo.common.cache.codec.CacheCodec;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Resolved policy of one cache (CachePolicyProperties: the cache's own settings, then the defaults)
+// ttl: Redis TTL of an entry, ttlJitter: up to this fraction of the TTL is added at random per write
+// maxEntries: 0 = unbounded, keyPrefix: put in front of "{cache}::" (null = none)
+public record CachePolicy(Duration ttl, double ttlJitter, long maxEntries, String keyPrefix, CacheCodec codec) {
+
+    // Entries written together (warm-up, mass invalidation) don't all expire in the same second
+    public Duration jitteredTtl() {
+        if (ttlJitter <= 0) {
+            return ttl;
+        }
+        long extra = (long) (ttl.toMillis() * ttlJitter * ThreadLocalRandom.current().nextDouble());
+        return ttl.plusMillis(extra);
+    }
+
+    // Longest an entry can live
+    public Duration maxTtl() {
+        return ttl.plusMillis((long) (ttl.toMillis() * Math.max(ttlJitter, 0)));
+    }
+
+    public boolean bounded() {
+        return maxEntries > 0;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.zylo.common.cache;
+
+import com.example.zylo.common.cache.codec.CacheCodec;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Per-cache TTL / size / key prefix / codec, e.g.
+//   cache.policy.defaults.ttl=30m
+//   cache.policy.caches.categories.ttl=12h
+// Settings a cache doesn't set come from the defaults
+// key-prefix goes in front of the "{cache}::" Redis key prefix (e.g. a namespace in a shared Redis)
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cache.policy")
+public class CachePolicyProperties {
+
+    private Policy defaults = new Policy();
+    private Map<String, Policy> caches = new LinkedHashMap<>();
+
+    // null: the defaults (caches without a policy of their own)
+    public CachePolicy resolve(String cacheName) {
+        Policy policy = cacheName != null ? caches.getOrDefault(cacheName, defaults) : defaults;
+        return new CachePolicy(
+                firstSet(policy.getTtl(), defaults.getTtl(), Duration.ofMinutes(30)),
+                firstSet(policy.getTtlJitter(), defaults.getTtlJitter(), 0.0),
+                firstSet(policy.getMaxEntries(), defaults.getMaxEntries(), 0L),
+                firstSet(policy.getKeyPrefix(), defaults.getKeyPrefix(), null),
+                firstSet(policy.getCodec(), defaults.getCodec(), CacheCodec.JSON)
+        );
+    }
+
+    private static <T> T firstSet(T value, T fallback, T builtIn) {
+        return value != null ? value : fallback != null ? fallback : builtIn;
+    }
+
+    @Getter
+    @Setter
+    public static class Policy {
+        private Duration ttl;
+        // Fraction of the TTL, e.g. 0.1 = up to 10% longer
+        private Double ttlJitter;
+        private Long maxEntries;
+        private String keyPrefix;
+        private CacheCodec codec;
+    }
+}
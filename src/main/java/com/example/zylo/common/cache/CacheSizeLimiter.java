@@ -0,0 +1,90 @@
+package com.example.zylo.common.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+// Max entries for a Redis cache (Redis itself only bounds memory for the whole instance)
+// Every write is recorded in "cache-index:{cache}" (sorted by write time), past the limit
+// the oldest entries are deleted (scripts/track_cache_entry.lua), counted as cache.evictions
+// Evicted / cleared entries leave the index too, so they don't count toward the limit
+// Only writes and removals cost a round trip, reads are untouched
+@Slf4j
+public class CacheSizeLimiter {
+
+    public static final String INDEX_PREFIX = "cache-index:";
+
+    private final String cacheName;
+    private final RedisCacheConfiguration cacheConfiguration;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisScript<Long> trackScript;
+    private final CachePolicy policy;
+    private final Counter evictions;
+
+    public CacheSizeLimiter(
+            String cacheName,
+            RedisCacheConfiguration cacheConfiguration,
+            StringRedisTemplate redisTemplate,
+            RedisScript<Long> trackScript,
+            CachePolicy policy,
+            MeterRegistry meterRegistry
+    ) {
+        this.cacheName = cacheName;
+        this.cacheConfiguration = cacheConfiguration;
+        this.redisTemplate = redisTemplate;
+        this.trackScript = trackScript;
+        this.policy = policy;
+        this.evictions = Counter.builder("cache.evictions")
+                .tag("cache", cacheName)
+                .description("Entries evicted to stay within the cache's max entries")
+                .register(meterRegistry);
+    }
+
+    // After a write of this cache key
+    public void track(Object key) {
+        try {
+            Long evicted = redisTemplate.execute(trackScript,
+                    List.of(INDEX_PREFIX + cacheName),
+                    redisKey(key),
+                    String.valueOf(System.currentTimeMillis()),
+                    String.valueOf(policy.maxEntries()),
+                    String.valueOf(policy.maxTtl().toMillis()));
+            if (evicted != null && evicted > 0) {
+                evictions.increment(evicted);
+            }
+        } catch (RuntimeException e) {
+            // The entry is cached anyway, the limit catches up on the next write
+            log.warn("Cache size tracking failed for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    // After an evict of this cache key
+    public void untrack(Object key) {
+        try {
+            redisTemplate.opsForZSet().remove(INDEX_PREFIX + cacheName, redisKey(key));
+        } catch (RuntimeException e) {
+            // Popped later by the limit (the DEL is a no-op then) or dropped after the max TTL
+            log.warn("Cache size untracking failed for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    // After a clear of the whole cache
+    public void clear() {
+        try {
+            redisTemplate.delete(INDEX_PREFIX + cacheName);
+        } catch (RuntimeException e) {
+            log.warn("Cache size index reset failed for {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    // Same key RedisCache writes: prefix + key converted to a String
+    private String redisKey(Object key) {
+        String converted = cacheConfiguration.getConversionService().convert(key, String.class);
+        return cacheConfiguration.usePrefix() ? cacheConfiguration.getKeyPrefixFor(cacheName) + converted : converted;
+    }
+}
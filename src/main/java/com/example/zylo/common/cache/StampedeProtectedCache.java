@@ -0,0 +1,365 @@
+package com.example.zylo.common.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+// Cache decorator that keeps a hot key from sending every concurrent miss to MySQL
+// Used through Cache.get(key, loader), i.e. @Cacheable(sync = true) and CatalogCache
+//
+// 1. Single-flight per node: concurrent misses for a key share one load
+// 2. Across nodes: the loading node holds "lock:{cache}::{key}" (SET NX PX), the others wait for its value
+// 3. Stale-while-revalidate: past its soft TTL a value is still served while one background refresh runs
+//    (Redis TTL = soft TTL + stale window, + jitter, see CachePolicy)
+// 4. Probabilistic early refresh (XFetch): shortly before the soft TTL, a request occasionally refreshes early,
+//    expensive loads earlier than cheap ones, so hot keys rarely reach expiry at all
+//
+// Also where the cache's hit / miss / put / removal meters are counted (cache.gets, cache.puts, cache.removals),
+// and writes / removals are reported to the cache's size limit (CacheSizeLimiter, if it has max entries)
+@Slf4j
+public class StampedeProtectedCache implements Cache {
+
+    private static final String LOCK_PREFIX = "lock:";
+    private static final long LOCK_POLL_MILLIS = 50;
+
+    private final Cache delegate;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisScript<Long> releaseLockScript;
+    private final Executor refreshExecutor;
+    private final Duration softTtl;
+    private final Duration lockTtl;
+    private final double earlyRefreshBeta;
+    private final CacheSizeLimiter sizeLimiter;
+
+    // Misses being loaded (other misses join them), and keys with a background refresh queued or running
+    // Kept apart: a refresh that loses the lock to another node has no value for a waiting miss
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final Counter coalesced;
+    private final Counter staleServed;
+    private final Counter refreshes;
+    private final Counter lockWaits;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter puts;
+    private final Counter removals;
+
+    public StampedeProtectedCache(
+            Cache delegate,
+            StringRedisTemplate redisTemplate,
+            RedisScript<Long> releaseLockScript,
+            Executor refreshExecutor,
+            Duration softTtl,
+            Duration lockTtl,
+            double earlyRefreshBeta,
+            CacheSizeLimiter sizeLimiter,
+            MeterRegistry meterRegistry
+    ) {
+        this.delegate = delegate;
+        this.redisTemplate = redisTemplate;
+        this.releaseLockScript = releaseLockScript;
+        this.refreshExecutor = refreshExecutor;
+        this.softTtl = softTtl;
+        this.lockTtl = lockTtl;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.sizeLimiter = sizeLimiter;
+
+        this.coalesced = eventCounter(meterRegistry, "coalesced");
+        this.staleServed = eventCounter(meterRegistry, "stale_served");
+        this.refreshes = eventCounter(meterRegistry, "background_refresh");
+        this.lockWaits = eventCounter(meterRegistry, "lock_wait");
+
+        // Same meter names / tags as Micrometer's cache binders (and the Caffeine caches)
+        this.hits = getCounter(meterRegistry, "hit");
+        this.misses = getCounter(meterRegistry, "miss");
+        this.puts = Counter.builder("cache.puts")
+                .tag("cache", getName())
+                .description("Entries added to the cache")
+                .register(meterRegistry);
+        this.removals = Counter.builder("cache.removals")
+                .tag("cache", getName())
+                .description("Entries removed from the cache (evict / clear calls)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        CacheEnvelope envelope = lookup(key);
+        return envelope != null ? new SimpleValueWrapper(envelope.value()) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        CacheEnvelope envelope = lookup(key);
+        if (envelope == null || envelope.value() == null) {
+            return null;
+        }
+        if (type != null && !type.isInstance(envelope.value())) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + envelope.value());
+        }
+        return (T) envelope.value();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CacheEnvelope envelope = lookup(key);
+        if (envelope != null) {
+            long now = System.currentTimeMillis();
+            if (now >= envelope.softExpiresAt()) {
+                staleServed.increment();
+                refreshAsync(key, valueLoader);
+            } else if (shouldRefreshEarly(envelope, now)) {
+                refreshAsync(key, valueLoader);
+            }
+            return (T) envelope.value();
+        }
+        return (T) loadSingleFlight(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value != null) {
+            write(key, new CacheEnvelope(value, System.currentTimeMillis() + softTtl.toMillis(), 0));
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        removals.increment();
+        delegate.evict(key);
+        if (sizeLimiter != null) {
+            sizeLimiter.untrack(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        removals.increment();
+        delegate.clear();
+        if (sizeLimiter != null) {
+            sizeLimiter.clear();
+        }
+    }
+
+    // XFetch: refresh when now - computeTime * beta * ln(random) >= expiry
+    // ln(random) is negative, so the check fires earlier for slower loads and more often as expiry nears
+    private boolean shouldRefreshEarly(CacheEnvelope envelope, long now) {
+        if (envelope.computeMillis() <= 0 || earlyRefreshBeta <= 0) {
+            return false;
+        }
+        double random = ThreadLocalRandom.current().nextDouble();
+        return now - envelope.computeMillis() * earlyRefreshBeta * Math.log(random) >= envelope.softExpiresAt();
+    }
+
+    // One background refresh per key per node (skipped if a load is already running or the pool is full)
+    private void refreshAsync(Object key, Callable<?> valueLoader) {
+        if (inFlight.containsKey(key) || !refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refreshWithLock(key, valueLoader);
+                } catch (RuntimeException e) {
+                    log.warn("Background refresh failed for {}::{}: {}", getName(), key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            log.debug("Refresh pool busy, {}::{} keeps its stale value", getName(), key);
+        }
+    }
+
+    private Object loadSingleFlight(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            return await(key, valueLoader, running);
+        }
+
+        try {
+            Object value = loadWithLock(key, valueLoader);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Miss: load under the cross-node lock, or wait (up to the lock TTL) for the node holding it
+    private Object loadWithLock(Object key, Callable<?> valueLoader) {
+        String lockKey = lockKey(key);
+        String token = tryLock(lockKey);
+        if (token != null) {
+            try {
+                return loadAndPut(key, valueLoader);
+            } finally {
+                unlock(lockKey, token);
+            }
+        }
+
+        lockWaits.increment();
+        long deadline = System.currentTimeMillis() + lockTtl.toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            CacheEnvelope envelope = envelope(key);
+            if (envelope != null) {
+                return envelope.value();
+            }
+        }
+
+        // The other node didn't finish in time, load without waiting any longer
+        return loadAndPut(key, valueLoader);
+    }
+
+    // Stale / early refresh: only if no other node is already refreshing
+    private void refreshWithLock(Object key, Callable<?> valueLoader) {
+        String lockKey = lockKey(key);
+        String token = tryLock(lockKey);
+        if (token == null) {
+            return;
+        }
+        try {
+            refreshes.increment();
+            loadAndPut(key, valueLoader);
+        } finally {
+            unlock(lockKey, token);
+        }
+    }
+
+    private Object loadAndPut(Object key, Callable<?> valueLoader) {
+        long start = System.currentTimeMillis();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long now = System.currentTimeMillis();
+
+        if (value != null) {
+            write(key, new CacheEnvelope(value, now + softTtl.toMillis(), now - start));
+        }
+        return value;
+    }
+
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> running) {
+        try {
+            return running.get(lockTtl.toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        } catch (TimeoutException e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    // Token if acquired, null if another node holds the lock
+    // Redis down: no lock, the caller loads (single-flight per node still applies)
+    private String tryLock(String lockKey) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(lockKey, token, lockTtl);
+            return Boolean.FALSE.equals(acquired) ? null : token;
+        } catch (RuntimeException e) {
+            log.warn("Cache lock unavailable for {}: {}", lockKey, e.getMessage());
+            return token;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(releaseLockScript, List.of(lockKey), token);
+        } catch (RuntimeException e) {
+            // Expires on its own after lockTtl
+            log.warn("Failed to release cache lock {}: {}", lockKey, e.getMessage());
+        }
+    }
+
+    private String lockKey(Object key) {
+        return LOCK_PREFIX + getName() + "::" + key;
+    }
+
+    private void write(Object key, CacheEnvelope envelope) {
+        delegate.put(key, envelope);
+        puts.increment();
+        if (sizeLimiter != null) {
+            sizeLimiter.track(key);
+        }
+    }
+
+    // Caller lookups (counted as hit / miss), lock waits re-read through envelope()
+    private CacheEnvelope lookup(Object key) {
+        CacheEnvelope envelope = envelope(key);
+        (envelope != null ? hits : misses).increment();
+        return envelope;
+    }
+
+    // Entries written before this decorator (plain values) are treated as fresh
+    private CacheEnvelope envelope(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            return null;
+        }
+        if (wrapper.get() instanceof CacheEnvelope envelope) {
+            return envelope;
+        }
+        return new CacheEnvelope(wrapper.get(), Long.MAX_VALUE, 0);
+    }
+
+    private Counter getCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.gets")
+                .tag("cache", getName())
+                .tag("result", result)
+                .description("Cache lookups by result")
+                .register(meterRegistry);
+    }
+
+    private Counter eventCounter(MeterRegistry meterRegistry, String event) {
+        return Counter.builder("cache.stampede")
+                .tag("cache", getName())
+                .tag("event", event)
+                .description("Stampede protection events per cache")
+                .register(meterRegistry);
+    }
+}
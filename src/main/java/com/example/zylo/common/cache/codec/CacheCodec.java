@@ -0,0 +1,15 @@
+package com.example.zylo.common.cache.codec;
+
+// How a cache encodes its values in Redis (chosen per cache, cache.policy.*.codec)
+// JSON: RedisSerializer.json() with type info, readable in redis-cli, largest and slowest to parse
+// SMILE: same Jackson model and type info in binary (Smile): shared field names, binary numbers
+// SMILE_LZ4: Smile, LZ4 compressed above a size threshold (listing pages)
+public enum CacheCodec {
+
+    JSON, SMILE, SMILE_LZ4;
+
+    // "json", "smile", "smile-lz4"
+    public static CacheCodec from(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.zylo.common.cache.codec;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.GenericJacksonJsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.ClassUtils;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.nio.ByteBuffer;
+
+// Cache value serializer, writes the cache's codec (CacheCodec)
+// Reads every format whatever the codec: LZ4 marker, Smile header (":)\n"), else JSON
+// so changing a cache's codec doesn't turn the entries already in Redis into errors
+//
+// LZ4 layout: marker(1) | uncompressed length(4) | LZ4 block
+// Values under the threshold are stored uncompressed (small entries gain little, cost a copy)
+//
+// Decoding as Object makes the Jackson serializer build a tree of the whole value only to find the root
+// "@class", then parse it again. The type property is written first, so it's read with a streaming peek
+// and the value is parsed once as that class
+public class CacheValueSerializer implements RedisSerializer<Object> {
+
+    // Can't start a JSON document or a Smile header
+    private static final byte LZ4_MARKER = (byte) 0xC4;
+    private static final int LZ4_HEADER = 5;
+    // Bounds the allocation for a corrupt length
+    private static final int MAX_UNCOMPRESSED = 64 * 1024 * 1024;
+
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+    private static final String TYPE_PROPERTY = "@class";
+
+    // Only create parsers for the root type peek
+    private static final ObjectMapper JSON_PARSER = new JsonMapper();
+    private static final ObjectMapper SMILE_PARSER = new SmileMapper();
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+    private final CacheCodec codec;
+    private final int compressionThreshold;
+    private final GenericJacksonJsonRedisSerializer json;
+    private final GenericJacksonJsonRedisSerializer smile;
+
+    public CacheValueSerializer(CacheCodec codec, int compressionThreshold,
+                                GenericJacksonJsonRedisSerializer json, GenericJacksonJsonRedisSerializer smile) {
+        this.codec = codec;
+        this.compressionThreshold = compressionThreshold;
+        this.json = json;
+        this.smile = smile;
+    }
+
+    // What RedisSerializer.json() builds (type info + Spring cache null values), typed so a class can be passed in
+    public static GenericJacksonJsonRedisSerializer jsonSerializer() {
+        return GenericJacksonJsonRedisSerializer.builder()
+                .enableSpringCacheNullValueSupport()
+                .enableUnsafeDefaultTyping()
+                .build();
+    }
+
+    // Smile with the same typing / Spring cache null handling
+    public static GenericJacksonJsonRedisSerializer smileSerializer() {
+        return GenericJacksonJsonRedisSerializer.builder(SmileMapper::builder)
+                .enableSpringCacheNullValueSupport()
+                .enableUnsafeDefaultTyping()
+                .build();
+    }
+
+    public CacheCodec codec() {
+        return codec;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        return switch (codec) {
+            case JSON -> json.serialize(value);
+            case SMILE -> smile.serialize(value);
+            case SMILE_LZ4 -> compress(smile.serialize(value));
+        };
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == LZ4_MARKER) {
+            bytes = decompress(bytes);
+        }
+        boolean isSmile = isSmile(bytes);
+        GenericJacksonJsonRedisSerializer serializer = isSmile ? smile : json;
+        Class<?> rootType = rootType(isSmile ? SMILE_PARSER : JSON_PARSER, bytes);
+        return rootType != null ? serializer.deserialize(bytes, rootType) : serializer.deserialize(bytes);
+    }
+
+    // {"@class": "...", ...} -> the class, null for anything else (the serializer then resolves it itself)
+    private static Class<?> rootType(ObjectMapper parsers, byte[] bytes) {
+        try (JsonParser parser = parsers.createParser(bytes)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT
+                    || !TYPE_PROPERTY.equals(parser.nextName())
+                    || parser.nextToken() != JsonToken.VALUE_STRING) {
+                return null;
+            }
+            return ClassUtils.forName(parser.getString(), CacheValueSerializer.class.getClassLoader());
+        } catch (JacksonException | ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private byte[] compress(byte[] bytes) {
+        if (bytes == null || compressionThreshold <= 0 || bytes.length < compressionThreshold) {
+            return bytes;
+        }
+        byte[] out = new byte[LZ4_HEADER + COMPRESSOR.maxCompressedLength(bytes.length)];
+        out[0] = LZ4_MARKER;
+        ByteBuffer.wrap(out, 1, 4).putInt(bytes.length);
+        int length = COMPRESSOR.compress(bytes, 0, bytes.length, out, LZ4_HEADER);
+        byte[] compressed = new byte[LZ4_HEADER + length];
+        System.arraycopy(out, 0, compressed, 0, compressed.length);
+        return compressed;
+    }
+
+    private static byte[] decompress(byte[] bytes) {
+        if (bytes.length < LZ4_HEADER) {
+            throw new SerializationException("Truncated LZ4 cache value");
+        }
+        int length = ByteBuffer.wrap(bytes, 1, 4).getInt();
+        if (length < 0 || length > MAX_UNCOMPRESSED) {
+            throw new SerializationException("Invalid LZ4 cache value length: " + length);
+        }
+        byte[] out = new byte[length];
+        int written;
+        try {
+            written = DECOMPRESSOR.decompress(bytes, LZ4_HEADER, bytes.length - LZ4_HEADER, out, 0, length);
+        } catch (LZ4Exception e) {
+            throw new SerializationException("Corrupt LZ4 cache value", e);
+        }
+        if (written != length) {
+            throw new SerializationException("Corrupt LZ4 cache value");
+        }
+        return out;
+    }
+
+    private static boolean isSmile(byte[] bytes) {
+        return bytes.length >= SMILE_HEADER.length
+                && bytes[0] == SMILE_HEADER[0] && bytes[1] == SMILE_HEADER[1] && bytes[2] == SMILE_HEADER[2];
+    }
+}
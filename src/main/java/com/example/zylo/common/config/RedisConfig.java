@@ -1,42 +1,74 @@
 package com.example.zylo.common.config;
 
+import com.example.zylo.common.cache.CachePolicy;
+import com.example.zylo.common.cache.CachePolicyProperties;
+import com.example.zylo.common.cache.CacheSizeLimiter;
+import com.example.zylo.common.cache.StampedeProtectedCache;
+import com.example.zylo.common.cache.StampedeProtectedCacheManager;
+import com.example.zylo.common.cache.codec.CacheCodec;
+import com.example.zylo.common.cache.codec.CacheValueSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJacksonJsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
-import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CachePolicyProperties.class)
 public class RedisConfig {
 
-    // JSON RedisSerializer - uses default Jackson ObjectMapper
+    // JSON RedisSerializer - uses default Jackson ObjectMapper (same as RedisSerializer.json())
     @Bean
-    public RedisSerializer<Object> redisJsonSerializer() {
-        return RedisSerializer.json();
+    public GenericJacksonJsonRedisSerializer redisJsonSerializer() {
+        return CacheValueSerializer.jsonSerializer();
+    }
+
+    // Smile (binary JSON) RedisSerializer - same typing as the JSON one
+    @Bean
+    public GenericJacksonJsonRedisSerializer redisSmileSerializer() {
+        return CacheValueSerializer.smileSerializer();
     }
 
     // RedisTemplate for Object storage
     @Bean
     @Primary
     public RedisTemplate<String, Object> redisTemplate(
-            RedisConnectionFactory connectionFactory) {
+            RedisConnectionFactory connectionFactory,
+            CachePolicyProperties cachePolicies,
+            @Value("${cache.codec.lz4-threshold:1024}") int lz4Threshold) {
 
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(redisJsonSerializer());
+        // Default cache codec (cache.policy.defaults.codec)
+        CacheValueSerializer valueSerializer = valueSerializer(cachePolicies.resolve(null).codec(), lz4Threshold);
+        template.setValueSerializer(valueSerializer);
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(redisJsonSerializer());
+        template.setHashValueSerializer(valueSerializer);
 
         template.afterPropertiesSet();
         return template;
@@ -60,14 +92,98 @@ public class RedisConfig {
         return template;
     }
 
-    // Cache Manager for @Cacheable annotations
+    // Pub/Sub container, shared by all cross-node invalidation listeners
+    // (Listeners register themselves with addMessageListener)
     @Bean
-    public RedisCacheManager cacheManager(
+    public RedisMessageListenerContainer redisMessageListenerContainer(
             RedisConnectionFactory connectionFactory) {
 
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    // Cache Manager for @Cacheable annotations
+    // TTL (+ jitter), max entries, key prefix and codec per cache (CachePolicyProperties, cache.policy.*)
+    // The last stale-window of an entry's TTL it is served stale while refreshed
+    // Every cache is wrapped in StampedeProtectedCache (single-flight, cross-node lock, early refresh,
+    // hit / miss / put meters), used by @Cacheable(sync = true) and CatalogCache
+    @Bean
+    public CacheManager cacheManager(
+            RedisConnectionFactory connectionFactory,
+            StringRedisTemplate stringRedisTemplate,
+            MeterRegistry meterRegistry,
+            CachePolicyProperties cachePolicies,
+            @Value("${cache.stampede.stale-window:5m}") Duration staleWindow,
+            @Value("${cache.stampede.lock-ttl:5s}") Duration lockTtl,
+            @Value("${cache.stampede.early-refresh-beta:1.0}") double earlyRefreshBeta,
+            @Value("${cache.stampede.refresh-threads:2}") int refreshThreads,
+            @Value("${cache.codec.lz4-threshold:1024}") int lz4Threshold) {
+
+        // Configured caches get their own configuration, any other cache name the defaults
+        Map<String, RedisCacheConfiguration> cacheConfigs = new HashMap<>();
+        for (String name : cachePolicies.getCaches().keySet()) {
+            cacheConfigs.put(name, cacheConfiguration(cachePolicies.resolve(name), lz4Threshold));
+        }
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(cacheConfiguration(cachePolicies.resolve(null), lz4Threshold))
+                .withInitialCacheConfigurations(cacheConfigs)
+                .build();
+        redisCacheManager.afterPropertiesSet();
+
+        DefaultRedisScript<Long> releaseLockScript = new DefaultRedisScript<>();
+        releaseLockScript.setLocation(new ClassPathResource("scripts/release_lock.lua"));
+        releaseLockScript.setResultType(Long.class);
+
+        DefaultRedisScript<Long> trackEntryScript = new DefaultRedisScript<>();
+        trackEntryScript.setLocation(new ClassPathResource("scripts/track_cache_entry.lua"));
+        trackEntryScript.setResultType(Long.class);
+
+        // Background refreshes, dropped when full (the stale value is served a little longer)
+        ThreadPoolExecutor refreshExecutor = new ThreadPoolExecutor(
+                refreshThreads, refreshThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(100),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+
+        return new StampedeProtectedCacheManager(redisCacheManager, cache -> {
+            CachePolicy policy = cachePolicies.resolve(cache.getName());
+
+            // Short-lived caches: the stale window is at most half the TTL
+            Duration window = staleWindow.compareTo(policy.ttl().dividedBy(2)) > 0
+                    ? policy.ttl().dividedBy(2)
+                    : staleWindow;
+
+            CacheSizeLimiter sizeLimiter = policy.bounded() && cache instanceof RedisCache redisCache
+                    ? new CacheSizeLimiter(cache.getName(), redisCache.getCacheConfiguration(),
+                            stringRedisTemplate, trackEntryScript, policy, meterRegistry)
+                    : null;
+
+            return new StampedeProtectedCache(
+                    cache,
+                    stringRedisTemplate,
+                    releaseLockScript,
+                    refreshExecutor,
+                    policy.ttl().minus(window),
+                    lockTtl,
+                    earlyRefreshBeta,
+                    sizeLimiter,
+                    meterRegistry
+            );
+        });
+    }
+
+    private RedisCacheConfiguration cacheConfiguration(CachePolicy policy, int lz4Threshold) {
         RedisCacheConfiguration config = RedisCacheConfiguration
                 .defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(30))
+                // TTL per write, so the jitter differs per entry
+                .entryTtl((key, value) -> policy.jitteredTtl())
                 .disableCachingNullValues()
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair
@@ -75,11 +191,13 @@ public class RedisConfig {
                 )
                 .serializeValuesWith(
                         RedisSerializationContext.SerializationPair
-                                .fromSerializer(redisJsonSerializer())
+                                .fromSerializer(valueSerializer(policy.codec(), lz4Threshold))
                 );
+        return policy.keyPrefix() != null ? config.prefixCacheNameWith(policy.keyPrefix()) : config;
+    }
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .build();
+    // Writes the codec, reads any of them (entries written before a codec change stay readable)
+    private CacheValueSerializer valueSerializer(CacheCodec codec, int lz4Threshold) {
+        return new CacheValueSerializer(codec, lz4Threshold, redisJsonSerializer(), redisSmileSerializer());
     }
 }
@@ -0,0 +1,21 @@
+package com.example.zylo.common.config;
+
+import com.example.zylo.product.web.CatalogConditionalRequestInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CatalogConditionalRequestInterceptor catalogConditionalRequestInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // ETag / Cache-Control for the public catalog reads
+        registry.addInterceptor(catalogConditionalRequestInterceptor)
+                .addPathPatterns("/api/products", "/api/products/**", "/api/categories", "/api/categories/**");
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.zylo.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One page of a cursor (keyset) paginated listing
+// nextCursor is opaque, pass it back as ?cursor= for the next page (null on the last page)
+// No total count: that is the COUNT(*) query keyset pagination avoids
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
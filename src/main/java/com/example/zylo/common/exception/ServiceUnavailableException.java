@@ -0,0 +1,15 @@
+package com.example.zylo.common.exception;
+
+import lombok.Getter;
+
+// Temporarily overloaded (e.g. password hashing queue full), client should retry after retryAfterSeconds
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
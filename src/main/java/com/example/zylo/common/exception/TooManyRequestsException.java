@@ -0,0 +1,15 @@
+package com.example.zylo.common.exception;
+
+import lombok.Getter;
+
+// Rate limited, client should retry after retryAfterSeconds
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.zylo.product.cache;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Cacheable form of a Page (PageImpl has no creator Jackson can deserialize from the Redis JSON)
+// Only the content and the total are stored, the Pageable comes from the request
+public record CachedPage<T>(List<T> content, long totalElements) {
+
+    public static <T> CachedPage<T> of(Page<T> page) {
+        // Plain ArrayList, the JSON type info then names a stable class
+        return new CachedPage<>(new ArrayList<>(page.getContent()), page.getTotalElements());
+    }
+
+    public Page<T> toPage(Pageable pageable) {
+        return new PageImpl<>(content, pageable, totalElements);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.zylo.product.cache;
+
+import com.example.zylo.common.tx.AfterCommit;
+import com.example.zylo.product.dto.productDtos.ProductCardResponse;
+import com.example.zylo.product.dto.productDtos.ProductSearchRequest;
+import com.example.zylo.product.search.SearchCriteria;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Product listing cache ("products"), product details are served from ProductSnapshotStore
+//
+// Listing keys contain everything that changes the result: scope + generation, filters, page, size, sort
+//   card:all:g{gen}:p0:s20:createdAt,desc
+//   card:category:{id}:g{gen}:p0:s20:createdAt,desc
+//   card:search:all:g{gen}:min=..:max=..[:ram=8GB,16GB]:p0:s20:name,asc
+// Product writes bump the generations (CatalogGenerations) instead of evicting every entry
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogCache {
+
+    public static final String LISTINGS = "products";
+
+    private final CacheManager cacheManager;
+    private final CatalogGenerations generations;
+
+    public Page<ProductCardResponse> allProducts(Pageable pageable, Supplier<Page<ProductCardResponse>> loader) {
+        String key = "all:g" + generations.all() + ":" + pageKey(pageable);
+        return listing(key, pageable, loader);
+    }
+
+    public Page<ProductCardResponse> categoryProducts(Long categoryId, Pageable pageable,
+                                                  Supplier<Page<ProductCardResponse>> loader) {
+        String key = categoryScope(categoryId) + ":" + pageKey(pageable);
+        return listing(key, pageable, loader);
+    }
+
+    public Page<ProductCardResponse> search(ProductSearchRequest request, Pageable pageable,
+                                        Supplier<Page<ProductCardResponse>> loader) {
+        // Category filter: only that category's writes invalidate the result
+        String scope = request.getCategoryId() != null
+                ? categoryScope(request.getCategoryId())
+                : "all:g" + generations.all();
+
+        String key = "search:" + scope
+                + ":min=" + priceKey(request.getMinPrice())
+                + ":max=" + priceKey(request.getMaxPrice())
+                + specsKey(SearchCriteria.from(request))
+                + ":" + pageKey(pageable);
+        return listing(key, pageable, loader);
+    }
+
+    // Product created / updated / deleted
+    // Runs after commit, so a concurrent reader can't cache the old state under the new generation
+    // Category ids may be null (uncategorized product, category deleted with ON DELETE SET NULL)
+    public void invalidateProduct(Collection<Long> categoryIds) {
+        List<Long> categories = categoryIds.stream()
+                .filter(Objects::nonNull)
+                .toList();
+        AfterCommit.run(() -> generations.bump(categories));
+    }
+
+    // Cache.get(key, loader): misses for the same key are coalesced (StampedeProtectedCache)
+    private Page<ProductCardResponse> listing(String scopedKey, Pageable pageable,
+                                              Supplier<Page<ProductCardResponse>> loader) {
+        Cache cache = cacheManager.getCache(LISTINGS);
+        // Entries hold cards, the prefix keeps them apart from entries of the earlier (full product) shape
+        String key = "card:" + scopedKey;
+
+        @SuppressWarnings("unchecked")
+        CachedPage<ProductCardResponse> cached = cache.get(key, () -> {
+            log.debug("Listing cache MISS: {}", key);
+            return CachedPage.of(loader.get());
+        });
+        return cached.toPage(pageable);
+    }
+
+    private String categoryScope(Long categoryId) {
+        return "category:" + categoryId + ":g" + generations.category(categoryId);
+    }
+
+    // p{page}:s{size}:{property},{direction};...
+    static String pageKey(Pageable pageable) {
+        String sort = pageable.getSort().isSorted()
+                ? pageable.getSort().stream()
+                        .map(order -> order.getProperty() + "," + (order.getDirection() == Sort.Direction.ASC ? "asc" : "desc"))
+                        .collect(Collectors.joining(";"))
+                : "unsorted";
+        return "p" + pageable.getPageNumber() + ":s" + pageable.getPageSize() + ":" + sort;
+    }
+
+    // Only selected specs, values sorted so parameter order doesn't matter
+    private static String specsKey(SearchCriteria criteria) {
+        return criteria.specs().entrySet().stream()
+                .map(entry -> ":" + entry.getKey().attribute() + "="
+                        + entry.getValue().stream().sorted().collect(Collectors.joining(",")))
+                .collect(Collectors.joining());
+    }
+
+    // 100, 100.0 and 100.00 share an entry
+    private static String priceKey(BigDecimal price) {
+        return price == null ? "" : price.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.zylo.product.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Generation counters for catalog listings, part of every listing cache key
+// "catalog:gen:all" (every listing / search across categories), "catalog:gen:category:{id}" (one category)
+// "catalog:gen:categories" (the category endpoints, bumped by category writes only)
+// Also the ETags of the catalog endpoints (CatalogConditionalRequestInterceptor)
+//
+// A product write bumps "all" and the product's categories, so only those listings get new keys
+// (old entries are never read again and expire by TTL, no mass delete / allEntries eviction)
+// Counters have no TTL. A missing counter is created at a random value (bump_generations.lua,
+// init_generation.lua), so after a reset (flush, failover without persistence) keys and ETags
+// don't repeat ones handed out for different content
+//
+// Read on every listing request, so mirrored locally: loaded from Redis on first use,
+// updated on bump, dropped on other nodes through pub/sub (short TTL in case a message is lost)
+@Slf4j
+@Component
+public class CatalogGenerations implements MessageListener {
+
+    public static final String KEY_PREFIX = "catalog:gen:";
+    public static final String ALL = "all";
+    public static final String CATEGORIES = "categories";
+    public static final String CHANNEL = "catalog:gen";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    // Random start of a missing counter
+    private static final long RANDOM_START_BOUND = 1L << 40;
+
+    // Keyed by scope ("all", "category:{id}")
+    private final LoadingCache<String, Long> generations;
+
+    private final DefaultRedisScript<Long> initScript;
+    private final byte[] bumpScript;
+
+    public CatalogGenerations(
+            StringRedisTemplate redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            @Value("${catalog.generations.local-ttl:30s}") Duration localTtl
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.generations = Caffeine.newBuilder()
+                .expireAfterWrite(localTtl)
+                .maximumSize(10_000)
+                .build(this::load);
+
+        this.initScript = new DefaultRedisScript<>();
+        this.initScript.setLocation(new ClassPathResource("scripts/init_generation.lua"));
+        this.initScript.setResultType(Long.class);
+
+        DefaultRedisScript<Object> bump = new DefaultRedisScript<>();
+        bump.setLocation(new ClassPathResource("scripts/bump_generations.lua"));
+        this.bumpScript = bytes(bump.getScriptAsString());
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public long all() {
+        return generations.get(ALL);
+    }
+
+    public long category(Long categoryId) {
+        return generations.get(categoryScope(categoryId));
+    }
+
+    public long categories() {
+        return generations.get(CATEGORIES);
+    }
+
+    // Listings containing products of these categories changed (create / update / delete)
+    // One pipeline: INCR "all" + each category, then one message per scope
+    public void bump(Collection<Long> categoryIds) {
+        Set<String> scopes = new LinkedHashSet<>();
+        scopes.add(ALL);
+        categoryIds.stream()
+                .filter(Objects::nonNull)
+                .forEach(id -> scopes.add(categoryScope(id)));
+        bump(new ArrayList<>(scopes));
+    }
+
+    // Category created / deleted
+    public void bumpCategories() {
+        bump(List.of(CATEGORIES));
+    }
+
+    private void bump(List<String> ordered) {
+        // Keys, then one random start per key
+        byte[][] keysAndArgs = new byte[ordered.size() * 2][];
+        for (int i = 0; i < ordered.size(); i++) {
+            keysAndArgs[i] = bytes(KEY_PREFIX + ordered.get(i));
+            keysAndArgs[ordered.size() + i] = bytes(String.valueOf(randomStart()));
+        }
+
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.scriptingCommands().eval(bumpScript, ReturnType.MULTI, ordered.size(), keysAndArgs);
+            for (String scope : ordered) {
+                connection.publish(bytes(CHANNEL), bytes(scope));
+            }
+            return null;
+        });
+
+        List<?> values = results.get(0) instanceof List<?> list ? list : List.of();
+        for (int i = 0; i < ordered.size(); i++) {
+            if (i < values.size() && values.get(i) instanceof Long generation) {
+                generations.put(ordered.get(i), generation);
+            } else {
+                generations.invalidate(ordered.get(i));
+            }
+        }
+        log.debug("Catalog generations bumped: {}", ordered);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        generations.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    // Plain GET, the script only runs for a counter that doesn't exist yet
+    private Long load(String scope) {
+        String key = KEY_PREFIX + scope;
+        String value = redisTemplate.opsForValue().get(key);
+        if (value != null) {
+            return Long.parseLong(value);
+        }
+        return redisTemplate.execute(initScript, List.of(key), String.valueOf(randomStart()));
+    }
+
+    private static long randomStart() {
+        return ThreadLocalRandom.current().nextLong(1, RANDOM_START_BOUND);
+    }
+
+    private static String categoryScope(Long categoryId) {
+        return "category:" + categoryId;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.zylo.product.cache;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Rendered GET /api/products/{id} response: final JSON bytes + the product version they show
+// version: updatedAt in epoch millis (every product / spec / stock write moves it), also the Last-Modified
+// ETag: "{id}-{version}"
+public record ProductSnapshot(long version, String etag, byte[] body) {
+
+    public static ProductSnapshot of(Long productId, LocalDateTime updatedAt, byte[] body) {
+        long version = updatedAt != null ? updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+        return new ProductSnapshot(version, etag(productId, version), body);
+    }
+
+    public static String etag(Long productId, long version) {
+        return "\"" + productId + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.zylo.product.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Render cache for product details: "product:snapshot:{id}" hash with the response bytes, version and ETag
+// A hit is one HMGET, the bytes go to the client as they are (no deserialization / object mapping)
+// Conditional requests read the version field only (version()), the body only when it changed
+//
+// Product, spec and stock writes re-render the snapshot and store it after commit (put)
+// Stores never replace a newer version (scripts/put_snapshot.lua), so a slow render started before
+// an update can't bring back the old response. Concurrent misses for the same id on a node share one render
+// Redis errors fall back to rendering, the snapshot is only an optimization
+@Slf4j
+@Component
+public class ProductSnapshotStore {
+
+    public static final String KEY_PREFIX = "product:snapshot:";
+
+    private static final byte[] VERSION_FIELD = "version".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ETAG_FIELD = "etag".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BODY_FIELD = "body".getBytes(StandardCharsets.UTF_8);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final DefaultRedisScript<Long> putScript;
+
+    private final Map<Long, CompletableFuture<ProductSnapshot>> inFlight = new ConcurrentHashMap<>();
+
+    public ProductSnapshotStore(
+            StringRedisTemplate redisTemplate,
+            @Value("${product.snapshot.ttl:6h}") Duration ttl
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.putScript = new DefaultRedisScript<>();
+        this.putScript.setLocation(new ClassPathResource("scripts/put_snapshot.lua"));
+        this.putScript.setResultType(Long.class);
+    }
+
+    public ProductSnapshot get(Long productId, Supplier<ProductSnapshot> renderer) {
+
+        // 1. Stored snapshot
+        ProductSnapshot snapshot = read(productId);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        // 2. Render once per node, other requests for the same id wait for it
+        CompletableFuture<ProductSnapshot> mine = new CompletableFuture<>();
+        CompletableFuture<ProductSnapshot> running = inFlight.putIfAbsent(productId, mine);
+        if (running != null) {
+            return join(running);
+        }
+        try {
+            snapshot = renderer.get();
+            put(productId, snapshot);
+            mine.complete(snapshot);
+            return snapshot;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(productId, mine);
+        }
+    }
+
+    // Stored version (the ETag is derived from it), null if there is no snapshot or Redis fails
+    public Long version(Long productId) {
+        try {
+            Object version = redisTemplate.opsForHash().get(KEY_PREFIX + productId, "version");
+            return version != null ? Long.valueOf(version.toString()) : null;
+        } catch (RuntimeException e) {
+            log.warn("Product snapshot version read failed for {}: {}", productId, e.getMessage());
+            return null;
+        }
+    }
+
+    public void put(Long productId, ProductSnapshot snapshot) {
+        try {
+            // Binary args, the body is stored byte for byte
+            redisTemplate.execute(putScript, RedisSerializer.byteArray(), new GenericToStringSerializer<>(Long.class),
+                    List.of(KEY_PREFIX + productId),
+                    bytes(String.valueOf(snapshot.version())),
+                    bytes(snapshot.etag()),
+                    snapshot.body(),
+                    bytes(String.valueOf(ttl.toMillis())));
+        } catch (RuntimeException e) {
+            log.warn("Failed to store product snapshot {}: {}", productId, e.getMessage());
+        }
+    }
+
+    private ProductSnapshot read(Long productId) {
+        try {
+            List<byte[]> fields = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                    connection.hashCommands().hMGet(key(productId), VERSION_FIELD, ETAG_FIELD, BODY_FIELD));
+            if (fields == null || fields.size() != 3 || fields.contains(null)) {
+                return null;
+            }
+            return new ProductSnapshot(Long.parseLong(new String(fields.get(0), StandardCharsets.UTF_8)),
+                    new String(fields.get(1), StandardCharsets.UTF_8), fields.get(2));
+        } catch (RuntimeException e) {
+            log.warn("Product snapshot read failed for {}: {}", productId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static ProductSnapshot join(CompletableFuture<ProductSnapshot> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static byte[] key(Long productId) {
+        return bytes(KEY_PREFIX + productId);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -1,21 +1,29 @@
 package com.example.zylo.product.controller;
 
 import com.example.zylo.common.dto.ApiResponse;
+import com.example.zylo.common.dto.CursorPage;
+import com.example.zylo.product.cache.ProductSnapshot;
 import com.example.zylo.product.dto.productDtos.CreateProductRequest;
+import com.example.zylo.product.dto.productDtos.ProductCardResponse;
+import com.example.zylo.product.dto.productDtos.ProductCursor;
 import com.example.zylo.product.dto.productDtos.ProductResponse;
 import com.example.zylo.product.dto.productDtos.ProductSearchRequest;
+import com.example.zylo.product.dto.productDtos.ProductSearchResponse;
 import com.example.zylo.product.dto.productDtos.UpdateProductRequest;
 import com.example.zylo.product.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -30,48 +38,93 @@ public class ProductController {
 
     // Get All Products
     @GetMapping("/products")
-    public ResponseEntity<ApiResponse<Page<ProductResponse>>> getAllProducts(
+    // withCount=false: Slice (no total count / COUNT query), for deep pages
+    public ResponseEntity<ApiResponse<Slice<ProductCardResponse>>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "true") boolean withCount
     ) {
         Sort sort = sortDir.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<ProductResponse> products = productService.getAllProducts(pageable);
+        Slice<ProductCardResponse> products = withCount
+                ? productService.getAllProducts(pageable)
+                : productService.getAllProductsSlice(pageable);
 
         return ResponseEntity.ok(ApiResponse.success(products));
     }
 
     // Get Product by ID
+    // Pre-rendered JSON bytes (product snapshot), written as they are
+    // If-None-Match with the current ETag (product id + updatedAt) / If-Modified-Since gets 304 and no body
+    // Conditional requests are checked against the stored version first, the body is only read when it changed
     @GetMapping("/products/{id}")
-    public ResponseEntity<ApiResponse<ProductResponse>> getProductById(@PathVariable Long id) {
-
-        ProductResponse product = productService.getProductById(id);
-        return ResponseEntity.ok(ApiResponse.success(product));
+    public ResponseEntity<byte[]> getProductById(@PathVariable Long id, WebRequest webRequest) {
+
+        // 1. Conditional request: version field only
+        Long storedVersion = isConditional(webRequest) ? productService.getProductSnapshotVersion(id) : null;
+        if (storedVersion != null) {
+            String etag = ProductSnapshot.etag(id, storedVersion);
+            if (webRequest.checkNotModified(etag, storedVersion)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+
+        // 2. Full snapshot (rendered if none is stored, the client may still hold its ETag then)
+        ProductSnapshot snapshot = productService.getProductSnapshot(id);
+        if (storedVersion == null && webRequest.checkNotModified(snapshot.etag(), snapshot.version())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .lastModified(snapshot.version())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.body());
     }
 
     // Search Products
     @GetMapping("/products/search")
-    public ResponseEntity<ApiResponse<Page<ProductResponse>>> searchProducts(
+    public ResponseEntity<ApiResponse<ProductSearchResponse>> searchProducts(
             @ModelAttribute ProductSearchRequest request
     ) {
-        Page<ProductResponse> products = productService.searchProducts(request);
+        ProductSearchResponse response = productService.searchProducts(request);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    // Cursor (keyset) pagination: ?sort=newest|price_asc|price_desc, then ?cursor=<nextCursor>
+    // Every page costs the same, no matter how deep
+    @GetMapping("/products/scroll")
+    public ResponseEntity<ApiResponse<CursorPage<ProductCardResponse>>> scrollProducts(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        if (size < 1 || size > 100) {
+            throw new IllegalArgumentException("size must be between 1 and 100");
+        }
+        CursorPage<ProductCardResponse> products = productService.scrollProducts(
+                categoryId, ProductCursor.Order.from(sort), cursor, size);
+
         return ResponseEntity.ok(ApiResponse.success(products));
     }
 
     // Get Products by Category
     @GetMapping("/products/category/{categoryId}")
-    public ResponseEntity<ApiResponse<Page<ProductResponse>>> getProductsByCategory(
+    public ResponseEntity<ApiResponse<Slice<ProductCardResponse>>> getProductsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "true") boolean withCount
     ) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<ProductResponse> products = productService.getProductsByCategory(categoryId, pageable);
+        Slice<ProductCardResponse> products = withCount
+                ? productService.getProductsByCategory(categoryId, pageable)
+                : productService.getProductsByCategorySlice(categoryId, pageable);
 
         return ResponseEntity.ok(ApiResponse.success(products));
     }
@@ -127,4 +180,9 @@ public class ProductController {
         productService.updateStock(id, quantity);
         return ResponseEntity.ok(ApiResponse.success("Stock updated successfully"));
     }
+
+    private static boolean isConditional(WebRequest webRequest) {
+        return webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
 }
@@ -0,0 +1,41 @@
+package com.example.zylo.product.dto.productDtos;
+
+import com.example.zylo.product.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Product as shown in listings (cards): no description, images list, specs or stock numbers
+// Selected straight into this class (constructor projection, see ProductCardQueries)
+// no Product entities are loaded for listing pages
+// Full details: ProductResponse (product snapshot)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCardResponse {
+
+    private Long id;
+    private String sku;
+    private String name;
+    private BigDecimal price;
+    private Product.StockStatus stockStatus;
+    private String primaryImageUrl;
+    private BigDecimal averageRating;
+    private Integer totalReviews;
+    private ProductResponse.CategorySummary category;
+    private LocalDateTime createdAt;
+
+    // Projection constructor (ProductCardQueriesImpl, ProductRepository.findCardsByIdIn)
+    public ProductCardResponse(Long id, String sku, String name, BigDecimal price, Product.StockStatus stockStatus,
+                               String primaryImageUrl, BigDecimal averageRating, Integer totalReviews,
+                               Long categoryId, String categoryName, String categorySlug, LocalDateTime createdAt) {
+        this(id, sku, name, price, stockStatus, primaryImageUrl, averageRating, totalReviews,
+                categoryId != null ? new ProductResponse.CategorySummary(categoryId, categoryName, categorySlug) : null,
+                createdAt);
+    }
+}
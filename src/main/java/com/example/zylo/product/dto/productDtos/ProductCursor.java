@@ -0,0 +1,83 @@
+package com.example.zylo.product.dto.productDtos;
+
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Locale;
+
+// Position in a keyset paginated product listing: sort order + the last row's (sort value, id)
+// Encoded as an opaque URL-safe token, e.g. base64("NEWEST|2026-01-05T10:15:30|1042")
+// id breaks ties, so rows with the same createdAt / price are neither skipped nor repeated
+public record ProductCursor(Order order, Object value, Long id) {
+
+    public enum Order {
+
+        NEWEST("createdAt", Sort.Direction.DESC),
+        PRICE_ASC("basePrice", Sort.Direction.ASC),
+        PRICE_DESC("basePrice", Sort.Direction.DESC);
+
+        private final String property;
+        private final Sort.Direction direction;
+
+        Order(String property, Sort.Direction direction) {
+            this.property = property;
+            this.direction = direction;
+        }
+
+        // ?sort=newest | price_asc | price_desc
+        public static Order from(String sort) {
+            try {
+                return valueOf(sort.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported sort: " + sort);
+            }
+        }
+
+        public String property() {
+            return property;
+        }
+
+        public Sort.Direction direction() {
+            return direction;
+        }
+
+        public Sort sort() {
+            return Sort.by(new Sort.Order(direction, property), new Sort.Order(direction, "id"));
+        }
+
+        private Object valueOf(ProductCardResponse product) {
+            return this == NEWEST ? product.getCreatedAt() : product.getPrice();
+        }
+
+        private Object parse(String value) {
+            return this == NEWEST ? LocalDateTime.parse(value) : new BigDecimal(value);
+        }
+    }
+
+    public static ProductCursor after(Order order, ProductCardResponse last) {
+        return new ProductCursor(order, order.valueOf(last), last.getId());
+    }
+
+    // The cursor has to come from a listing with the same sort
+    public static ProductCursor decode(String cursor, Order expected) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            Order order = Order.valueOf(parts[0]);
+            if (parts.length != 3 || order != expected) {
+                throw new IllegalArgumentException();
+            }
+            return new ProductCursor(order, order.parse(parts[1]), Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String text = value instanceof BigDecimal price ? price.toPlainString() : String.valueOf(value);
+        String raw = order.name() + "|" + text + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
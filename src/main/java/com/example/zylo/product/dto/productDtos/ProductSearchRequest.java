@@ -3,6 +3,7 @@ package com.example.zylo.product.dto.productDtos;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Data
 public class ProductSearchRequest {
@@ -12,6 +13,13 @@ public class ProductSearchRequest {
     private BigDecimal minPrice;
     private BigDecimal maxPrice;
     private Boolean featured;
+
+    // Spec filters, several values of one spec match any of them (?ram=8GB&ram=16GB)
+    private List<String> ram;
+    private List<String> storage;
+    private List<String> color;
+    private List<String> screenSize;
+
     private String sortBy = "createdAt"; // name, price, createdAt
     private String sortDir = "desc";     // asc, desc
     private Integer page = 0;
@@ -0,0 +1,23 @@
+package com.example.zylo.product.dto.productDtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResponse {
+
+    private Page<ProductCardResponse> products;
+
+    // Spec -> value -> number of matching products, e.g. {"ram": {"8GB": 120, "16GB": 45}}
+    // Counts of one spec ignore that spec's own filter, so the other values stay selectable
+    // Empty while the search index is still building
+    private Map<String, Map<String, Long>> facets;
+}
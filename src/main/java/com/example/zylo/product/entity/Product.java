@@ -2,7 +2,9 @@ package com.example.zylo.product.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Generated;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.generator.EventType;
 import org.hibernate.type.SqlTypes;
 
 import java.io.Serializable;
@@ -17,7 +19,12 @@ import java.util.List;
         @Index(name = "idx_active", columnList = "is_active"),
         @Index(name = "idx_stock", columnList = "stock_status"),
         @Index(name = "idx_rating", columnList = "average_rating"),
-        @Index(name = "idx_price", columnList = "base_price")
+        @Index(name = "idx_price", columnList = "base_price"),
+        // Keyset pagination (seek on sort column + id, see ProductCursor)
+        @Index(name = "idx_active_created", columnList = "is_active, created_at, id"),
+        @Index(name = "idx_active_price", columnList = "is_active, base_price, id"),
+        @Index(name = "idx_category_active_created", columnList = "category_id, is_active, created_at, id"),
+        @Index(name = "idx_category_active_price", columnList = "category_id, is_active, base_price, id")
 })
 @Getter
 @Setter
@@ -49,6 +56,9 @@ public class Product implements Serializable {
     @Column(name = "stock_quantity")
     private Integer stockQuantity = 0;
 
+    // Generated column (computed from stock_quantity by MySQL), read back after insert / update
+    // so responses rendered in the same transaction (product snapshot) show the new status
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
     @Column(name = "stock_status", insertable = false, updatable = false)
     @Enumerated(EnumType.STRING)
     private StockStatus stockStatus;
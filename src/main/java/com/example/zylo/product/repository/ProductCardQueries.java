@@ -0,0 +1,25 @@
+package com.example.zylo.product.repository;
+
+import com.example.zylo.product.dto.productDtos.ProductCardResponse;
+import com.example.zylo.product.dto.productDtos.ProductCursor;
+import com.example.zylo.product.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+// Listing queries that select only the card columns (ProductCardResponse) for any Specification
+// Read-only DTOs: no entities in the persistence context, no dirty checking, no TEXT / JSON columns read
+public interface ProductCardQueries {
+
+    Page<ProductCardResponse> findCards(Specification<Product> spec, Pageable pageable);
+
+    // No COUNT(*), fetches one extra row for hasNext
+    Slice<ProductCardResponse> findCardSlice(Specification<Product> spec, Pageable pageable);
+
+    // Keyset page: rows after the cursor (null = first page) in the order's sort, at most limit rows
+    List<ProductCardResponse> findCardsAfter(Specification<Product> spec, ProductCursor.Order order,
+                                             ProductCursor after, int limit);
+}
@@ -0,0 +1,119 @@
+package com.example.zylo.product.repository;
+
+import com.example.zylo.product.dto.productDtos.ProductCardResponse;
+import com.example.zylo.product.dto.productDtos.ProductCursor;
+import com.example.zylo.product.entity.Category;
+import com.example.zylo.product.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Criteria API, so the same Specifications as the entity queries can be used with a narrow SELECT
+class ProductCardQueriesImpl implements ProductCardQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ProductCardResponse> findCards(Specification<Product> spec, Pageable pageable) {
+        List<ProductCardResponse> content = select(spec, pageable.getSort(), null, null,
+                (int) pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public Slice<ProductCardResponse> findCardSlice(Specification<Product> spec, Pageable pageable) {
+        List<ProductCardResponse> content = select(spec, pageable.getSort(), null, null,
+                (int) pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public List<ProductCardResponse> findCardsAfter(Specification<Product> spec, ProductCursor.Order order,
+                                                    ProductCursor after, int limit) {
+        return select(spec, order.sort(), order, after, 0, limit);
+    }
+
+    private List<ProductCardResponse> select(Specification<Product> spec, Sort sort,
+                                             ProductCursor.Order order, ProductCursor after,
+                                             int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductCardResponse> query = cb.createQuery(ProductCardResponse.class);
+        Root<Product> root = query.from(Product.class);
+        Join<Product, Category> category = root.join("category", JoinType.LEFT);
+
+        query.select(cb.construct(ProductCardResponse.class,
+                root.get("id"),
+                root.get("sku"),
+                root.get("name"),
+                root.get("basePrice"),
+                root.get("stockStatus"),
+                root.get("primaryImageUrl"),
+                root.get("averageRating"),
+                root.get("totalReviews"),
+                category.get("id"),
+                category.get("name"),
+                category.get("slug"),
+                root.get("createdAt")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        if (after != null) {
+            predicates.add(seek(cb, root, order, after));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // (value, id) strictly after the cursor: value beyond, or same value and id beyond
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate seek(CriteriaBuilder cb, Root<Product> root, ProductCursor.Order order, ProductCursor after) {
+        Path<Comparable> value = root.get(order.property());
+        Path<Long> id = root.get("id");
+        Comparable cursorValue = (Comparable) after.value();
+
+        if (order.direction() == Sort.Direction.ASC) {
+            return cb.or(
+                    cb.greaterThan(value, cursorValue),
+                    cb.and(cb.equal(value, cursorValue), cb.greaterThan(id, after.id())));
+        }
+        return cb.or(
+                cb.lessThan(value, cursorValue),
+                cb.and(cb.equal(value, cursorValue), cb.lessThan(id, after.id())));
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root));
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
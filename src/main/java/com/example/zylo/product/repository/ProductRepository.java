@@ -1,42 +1,50 @@
 package com.example.zylo.product.repository;
 
+import com.example.zylo.product.dto.productDtos.ProductCardResponse;
 import com.example.zylo.product.entity.Product;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductCardQueries {
 
     Optional<Product> findBySku(String sku);
     boolean existsBySku(String sku);
     List<Product> findByIsActiveTrue();
-    Page<Product> findByIsActiveTrue(Pageable pageable);
-    Page<Product> findByCategoryIdAndIsActiveTrue(Long categoryId, Pageable pageable);
     List<Product> findByIsActiveTrueOrderByAverageRatingDesc();
 
-    @Query("SELECT p FROM Product p WHERE p.isActive = true " +
-            "AND LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    Page<Product> searchByName(@Param("keyword") String keyword, Pageable pageable);
-
-    @Query("SELECT p FROM Product p WHERE p.isActive = true " +
-            "AND p.category.id = :categoryId " +
-            "AND p.basePrice BETWEEN :minPrice AND :maxPrice")
-    Page<Product> findByCategoryAndPriceRange(
-            @Param("categoryId") Long categoryId,
-            @Param("minPrice") BigDecimal minPrice,
-            @Param("maxPrice") BigDecimal maxPrice,
-            Pageable pageable);
+    // Product detail (product snapshot render)
+    @EntityGraph(attributePaths = {"category", "specs"})
+    Optional<Product> findWithDetailsById(Long id);
 
+    @EntityGraph(attributePaths = {"category", "specs"})
     @Query("SELECT p FROM Product p WHERE p.stockQuantity <= p.lowStockThreshold " +
             "AND p.stockQuantity > 0 AND p.isActive = true")
     List<Product> findLowStockProducts();
+
+    // Search index build: active products with specs, in id order (keyset batches, no OFFSET)
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.specs " +
+            "WHERE p.isActive = true AND p.id > :afterId ORDER BY p.id")
+    List<Product> findIndexBatch(@Param("afterId") Long afterId, Limit limit);
+
+    // Search index update of one product
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.specs WHERE p.id = :id")
+    Optional<Product> findWithSpecsById(@Param("id") Long id);
+
+    // Hydrates search hits as cards in one query (order is restored by the caller)
+    @Query("SELECT new com.example.zylo.product.dto.productDtos.ProductCardResponse(" +
+            "p.id, p.sku, p.name, p.basePrice, p.stockStatus, p.primaryImageUrl, p.averageRating, p.totalReviews, " +
+            "c.id, c.name, c.slug, p.createdAt) " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.id IN :ids")
+    List<ProductCardResponse> findCardsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,398 @@
+package com.example.zylo.product.search;
+
+import com.example.zylo.product.entity.Product;
+import com.example.zylo.product.entity.ProductSpecs;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+// One generation of the product search index (not thread-safe, guarded by ProductSearchIndex)
+//
+// Products get dense ordinals (0, 1, 2, ...), postings store ordinals
+// An update assigns a new ordinal and clears the old one in `live` (no postings rewrite),
+// dead ordinals are dropped when the index is rebuilt (ProductSearchIndex compaction)
+// Per ordinal: product id, category id and price, so filters need no DB access
+// Category and spec values also have bitmaps (BitSet of ordinals) for filters and facet counts
+class IndexSegment {
+
+    // Field weights, a term keeps the highest weight of the fields it appears in
+    static final float SKU_WEIGHT = 5f;
+    static final float NAME_WEIGHT = 3f;
+    static final float SPECS_WEIGHT = 1.5f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+
+    // Bounds memory per product (descriptions can be long)
+    static final int MAX_DESCRIPTION_TOKENS = 64;
+
+    // Prefix matching on the last query token: max terms it expands to, and their score factor
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+    static final float PREFIX_FACTOR = 0.7f;
+
+    private static final long NO_CATEGORY = -1;
+
+    final TreeMap<String, Postings> terms = new TreeMap<>();
+    final Map<Long, Integer> ordinals = new HashMap<>();
+    final BitSet live = new BitSet();
+
+    // Bitmap indexes for filters / facet counts (ordinals, dead ones are masked with `live`)
+    final Map<Long, BitSet> categories = new HashMap<>();
+    final Map<SpecFacet, Map<String, BitSet>> facets = new EnumMap<>(SpecFacet.class);
+
+    // Sorted price indexes, per category and over all products (see PriceIndex)
+    final Map<Long, PriceIndex> categoryPrices = new HashMap<>();
+    final PriceIndex allPrices = new PriceIndex();
+
+    // false while bulk loading (price indexes unsorted), see seal()
+    boolean sealed;
+    // More ordinals than PriceIndex can encode (until compaction), price browsing falls back to the DB
+    boolean priceOverflow;
+
+    long[] productIds = new long[1024];
+    long[] categoryIds = new long[1024];
+    long[] priceCents = new long[1024];
+
+    int size;
+    int liveCount;
+
+    void add(Product product) {
+        remove(product.getId());
+
+        int ordinal = size++;
+        ensureCapacity(size);
+        productIds[ordinal] = product.getId();
+        categoryIds[ordinal] = product.getCategory() != null ? product.getCategory().getId() : NO_CATEGORY;
+        priceCents[ordinal] = cents(product.getBasePrice());
+        ordinals.put(product.getId(), ordinal);
+        live.set(ordinal);
+        liveCount++;
+
+        categories.computeIfAbsent(categoryIds[ordinal], c -> new BitSet()).set(ordinal);
+        if (ordinal <= PriceIndex.MAX_ORDINAL) {
+            long key = PriceIndex.key(priceCents[ordinal], ordinal);
+            PriceIndex category = categoryPrices.computeIfAbsent(categoryIds[ordinal], c -> new PriceIndex());
+            if (sealed) {
+                allPrices.insert(key);
+                category.insert(key);
+            } else {
+                allPrices.append(key);
+                category.append(key);
+            }
+        } else {
+            priceOverflow = true;
+        }
+        for (SpecFacet facet : SpecFacet.values()) {
+            String value = facet.valueOf(product.getSpecs());
+            if (value != null) {
+                facets.computeIfAbsent(facet, f -> new HashMap<>())
+                        .computeIfAbsent(value, v -> new BitSet())
+                        .set(ordinal);
+            }
+        }
+
+        for (Map.Entry<String, Float> term : termWeights(product).entrySet()) {
+            terms.computeIfAbsent(term.getKey(), t -> new Postings()).add(ordinal, term.getValue());
+        }
+    }
+
+    void remove(Long productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal != null) {
+            live.clear(ordinal);
+            liveCount--;
+            if (ordinal <= PriceIndex.MAX_ORDINAL) {
+                long key = PriceIndex.key(priceCents[ordinal], ordinal);
+                allPrices.remove(key);
+                categoryPrices.get(categoryIds[ordinal]).remove(key);
+            }
+        }
+    }
+
+    // End of bulk loading: sorts the price indexes, later adds insert in place
+    void seal() {
+        allPrices.sort();
+        categoryPrices.values().forEach(PriceIndex::sort);
+        sealed = true;
+    }
+
+    // Category (optional) + price range, sorted by price: a slice of the sorted price index
+    // O(log n + page size), no scoring, no bitmaps
+    // null if the price index can't answer (still loading / too many ordinals)
+    SearchHits browseByPrice(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                             boolean ascending, int offset, int limit) {
+        if (!sealed || priceOverflow) {
+            return null;
+        }
+        PriceIndex index = categoryId != null ? categoryPrices.get(categoryId) : allPrices;
+        if (index == null) {
+            return new SearchHits(List.of(), 0, Map.of());
+        }
+
+        int from = minPrice != null ? index.lowerBound(cents(minPrice)) : 0;
+        int to = maxPrice != null ? index.upperBound(cents(maxPrice)) : index.size();
+        int total = Math.max(to - from, 0);
+
+        List<Long> page = new ArrayList<>(Math.min(limit, Math.max(total - offset, 0)));
+        for (int i = offset; i < total && page.size() < limit; i++) {
+            int position = ascending ? from + i : to - 1 - i;
+            page.add(productIds[PriceIndex.ordinal(index.keyAt(position))]);
+        }
+        return new SearchHits(page, total, Map.of());
+    }
+
+    int deadCount() {
+        return size - liveCount;
+    }
+
+    // Keyword (optional), category, price and spec filters, plus facet counts over the matches
+    // Every query token must match (AND), the last one may also match as a prefix ("iph" -> iphone)
+    // Score: sum over tokens of field weight * idf, ties go to the newest product (highest ordinal)
+    // Without a keyword only total and facets are computed (productIds is empty, the DB pages those)
+    SearchHits search(SearchCriteria criteria, int offset, int limit) {
+
+        // 1. Category and price (bitmaps / sorted price index), keyword scoring only visits these
+        BitSet filter = filter(criteria);
+
+        // 2. Keyword matches with their scores, or every product passing the filter
+        Map<Integer, Float> scores = null;
+        BitSet matches;
+        if (criteria.hasKeyword()) {
+            scores = score(criteria.keyword(), filter);
+            matches = new BitSet(size);
+            scores.keySet().forEach(matches::set);
+        } else {
+            matches = filter;
+        }
+
+        // 3. Selected spec values, OR-ed within a facet
+        Map<SpecFacet, BitSet> selected = new EnumMap<>(SpecFacet.class);
+        criteria.specs().forEach((facet, values) -> {
+            BitSet any = new BitSet();
+            Map<String, BitSet> index = facets.getOrDefault(facet, Map.of());
+            values.forEach(value -> {
+                BitSet bits = index.get(value);
+                if (bits != null) {
+                    any.or(bits);
+                }
+            });
+            selected.put(facet, any);
+        });
+
+        // 4. Facet counts, each facet ignores its own selection (picking 8GB still shows how many have 16GB)
+        Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+        BitSet scratch = new BitSet(size);
+        for (SpecFacet facet : SpecFacet.values()) {
+            BitSet base = (BitSet) matches.clone();
+            selected.forEach((other, bits) -> {
+                if (other != facet) {
+                    base.and(bits);
+                }
+            });
+            counts.put(facet.attribute(), count(facet, base, scratch));
+        }
+
+        // 5. Matches of every filter
+        selected.values().forEach(matches::and);
+        int total = matches.cardinality();
+        if (scores == null) {
+            return new SearchHits(List.of(), total, counts);
+        }
+
+        List<Map.Entry<Integer, Float>> ranked = new ArrayList<>(total);
+        for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+            if (matches.get(entry.getKey())) {
+                ranked.add(entry);
+            }
+        }
+        ranked.sort(Map.Entry.<Integer, Float>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<Integer, Float>comparingByKey().reversed()));
+
+        List<Long> page = ranked.stream()
+                .skip(offset)
+                .limit(limit)
+                .map(entry -> productIds[entry.getKey()])
+                .toList();
+        return new SearchHits(page, total, counts);
+    }
+
+    // Live ordinals with the category and in the price range
+    private BitSet filter(SearchCriteria criteria) {
+        boolean priceRange = criteria.minPrice() != null || criteria.maxPrice() != null;
+        long min = criteria.minPrice() != null ? cents(criteria.minPrice()) : Long.MIN_VALUE;
+        long max = criteria.maxPrice() != null ? cents(criteria.maxPrice()) : Long.MAX_VALUE;
+
+        // Price slice of the sorted index: visits only the products in range
+        if (priceRange && sealed && !priceOverflow) {
+            PriceIndex index = criteria.categoryId() != null ? categoryPrices.get(criteria.categoryId()) : allPrices;
+            BitSet filter = new BitSet(size);
+            if (index != null) {
+                int to = index.upperBound(max);
+                for (int i = index.lowerBound(min); i < to; i++) {
+                    filter.set(PriceIndex.ordinal(index.keyAt(i)));
+                }
+            }
+            return filter;
+        }
+
+        BitSet filter = (BitSet) live.clone();
+        if (criteria.categoryId() != null) {
+            filter.and(categories.getOrDefault(criteria.categoryId(), new BitSet()));
+        }
+        if (priceRange) {
+            for (int doc = filter.nextSetBit(0); doc >= 0; doc = filter.nextSetBit(doc + 1)) {
+                if (priceCents[doc] < min || priceCents[doc] > max) {
+                    filter.clear(doc);
+                }
+            }
+        }
+        return filter;
+    }
+
+    // Ordinals in filter matching every token, with their scores (empty if any token matches nothing)
+    private Map<Integer, Float> score(String keyword, BitSet filter) {
+        List<String> tokens = Tokenizer.tokenize(keyword).stream().distinct().toList();
+        if (tokens.isEmpty()) {
+            return Map.of();
+        }
+
+        // Postings per token, smallest first so the candidate set shrinks early
+        List<List<Match>> groups = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            List<Match> matches = expand(tokens.get(i), i == tokens.size() - 1);
+            if (matches.isEmpty()) {
+                return Map.of();
+            }
+            groups.add(matches);
+        }
+        groups.sort(Comparator.comparingLong(IndexSegment::postingsSize));
+
+        Map<Integer, Float> scores = null;
+        for (List<Match> group : groups) {
+            Map<Integer, Float> next = new HashMap<>();
+            for (Match match : group) {
+                float idf = idf(match.postings()) * match.factor();
+                Postings postings = match.postings();
+                for (int j = 0; j < postings.size; j++) {
+                    int doc = postings.docs[j];
+                    if (!filter.get(doc) || (scores != null && !scores.containsKey(doc))) {
+                        continue;
+                    }
+                    next.merge(doc, postings.weights[j] * idf, Math::max);
+                }
+            }
+            if (scores != null) {
+                Map<Integer, Float> previous = scores;
+                next.replaceAll((doc, score) -> score + previous.get(doc));
+            }
+            scores = next;
+            if (scores.isEmpty()) {
+                return scores;
+            }
+        }
+        return scores;
+    }
+
+    // Value -> number of ordinals in base having it, most common first (values with none left out)
+    private Map<String, Long> count(SpecFacet facet, BitSet base, BitSet scratch) {
+        List<Map.Entry<String, Long>> counts = new ArrayList<>();
+        for (Map.Entry<String, BitSet> value : facets.getOrDefault(facet, Map.of()).entrySet()) {
+            scratch.clear();
+            scratch.or(value.getValue());
+            scratch.and(base);
+            long count = scratch.cardinality();
+            if (count > 0) {
+                counts.add(Map.entry(value.getKey(), count));
+            }
+        }
+        counts.sort(Map.Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        counts.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    private List<Match> expand(String token, boolean prefix) {
+        List<Match> matches = new ArrayList<>();
+        Postings exact = terms.get(token);
+        if (exact != null) {
+            matches.add(new Match(exact, 1f));
+        }
+        // Single characters would expand to most of the dictionary
+        if (prefix && token.length() >= 2) {
+            for (Map.Entry<String, Postings> entry :
+                    terms.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+                if (matches.size() > MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                matches.add(new Match(entry.getValue(), PREFIX_FACTOR));
+            }
+        }
+        return matches;
+    }
+
+    private float idf(Postings postings) {
+        return (float) Math.log(1 + (double) Math.max(liveCount, 1) / Math.max(postings.size, 1));
+    }
+
+    private static long postingsSize(List<Match> matches) {
+        long total = 0;
+        for (Match match : matches) {
+            total += match.postings().size;
+        }
+        return total;
+    }
+
+    private static Map<String, Float> termWeights(Product product) {
+        Map<String, Float> weights = new HashMap<>();
+
+        // Whole SKU as one term too, so "APL-IP15-256" finds it exactly
+        if (product.getSku() != null) {
+            addTerm(weights, product.getSku().toLowerCase(Locale.ROOT), SKU_WEIGHT);
+            addText(weights, product.getSku(), SKU_WEIGHT, Integer.MAX_VALUE);
+        }
+        addText(weights, product.getName(), NAME_WEIGHT, Integer.MAX_VALUE);
+        addText(weights, product.getDescription(), DESCRIPTION_WEIGHT, MAX_DESCRIPTION_TOKENS);
+
+        ProductSpecs specs = product.getSpecs();
+        if (specs != null) {
+            for (String value : Arrays.asList(specs.getBrand(), specs.getProcessor(), specs.getRam(),
+                    specs.getStorage(), specs.getScreenSize(), specs.getScreenType(), specs.getColor(),
+                    specs.getCameraSystem(), specs.getBatteryCapacity())) {
+                addText(weights, value, SPECS_WEIGHT, Integer.MAX_VALUE);
+            }
+            for (List<String> values : Arrays.asList(specs.getConnectivity(), specs.getPorts(), specs.getFeatures())) {
+                if (values != null) {
+                    values.forEach(value -> addText(weights, value, SPECS_WEIGHT, Integer.MAX_VALUE));
+                }
+            }
+        }
+        return weights;
+    }
+
+    private static void addText(Map<String, Float> weights, String text, float weight, int maxTokens) {
+        List<String> tokens = Tokenizer.tokenize(text);
+        for (int i = 0; i < tokens.size() && i < maxTokens; i++) {
+            addTerm(weights, tokens.get(i), weight);
+        }
+    }
+
+    private static void addTerm(Map<String, Float> weights, String term, float weight) {
+        weights.merge(term, weight, Math::max);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > productIds.length) {
+            int newLength = Math.max(capacity, productIds.length * 2);
+            productIds = Arrays.copyOf(productIds, newLength);
+            categoryIds = Arrays.copyOf(categoryIds, newLength);
+            priceCents = Arrays.copyOf(priceCents, newLength);
+        }
+    }
+
+    static long cents(BigDecimal price) {
+        return price == null ? 0 : price.movePointRight(2).longValue();
+    }
+
+    private record Match(Postings postings, float factor) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.zylo.product.search;
+
+import java.util.Arrays;
+
+// Documents (index ordinals) containing a term, with the term's weight in each
+// Append-only: ordinals are assigned in increasing order, so docs stays sorted
+// Updated / deleted products are masked by the live set of the segment, not removed here
+final class Postings {
+
+    int[] docs = new int[2];
+    float[] weights = new float[2];
+    int size;
+
+    void add(int doc, float weight) {
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        docs[size] = doc;
+        weights[size] = weight;
+        size++;
+    }
+}
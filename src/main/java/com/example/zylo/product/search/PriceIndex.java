@@ -0,0 +1,112 @@
+package com.example.zylo.product.search;
+
+import java.util.Arrays;
+
+// Live ordinals of one category (or of all products) sorted by price, then ordinal
+// One long per entry: price in cents in the high bits, ordinal in the low ORDINAL_BITS
+// A price range is a contiguous slice found by binary search: total = slice length,
+// a page is read straight from the slice (either end for asc / desc)
+//
+// Bulk loading (index rebuild) appends and sorts once in seal(),
+// afterwards single updates insert / remove in place (arraycopy, writes are rare)
+final class PriceIndex {
+
+    static final int ORDINAL_BITS = 24;
+    static final int MAX_ORDINAL = (1 << ORDINAL_BITS) - 1;
+    static final long MAX_CENTS = Long.MAX_VALUE >>> ORDINAL_BITS;
+
+    private long[] keys = new long[16];
+    private int size;
+    private boolean sorted = true;
+
+    static long key(long cents, int ordinal) {
+        return Math.min(Math.max(cents, 0), MAX_CENTS) << ORDINAL_BITS | ordinal;
+    }
+
+    static int ordinal(long key) {
+        return (int) (key & MAX_ORDINAL);
+    }
+
+    void append(long key) {
+        ensureCapacity();
+        keys[size++] = key;
+        sorted = false;
+    }
+
+    void insert(long key) {
+        int at = Arrays.binarySearch(keys, 0, size, key);
+        if (at >= 0) {
+            return;
+        }
+        at = -at - 1;
+        ensureCapacity();
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        keys[at] = key;
+        size++;
+    }
+
+    void remove(long key) {
+        int at = sorted ? Arrays.binarySearch(keys, 0, size, key) : indexOf(key);
+        if (at >= 0) {
+            System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+            size--;
+        }
+    }
+
+    void sort() {
+        if (!sorted) {
+            Arrays.sort(keys, 0, size);
+            sorted = true;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    // First position with a price >= cents
+    int lowerBound(long cents) {
+        if (cents <= 0) {
+            return 0;
+        }
+        if (cents > MAX_CENTS) {
+            return size;
+        }
+        return insertionPoint(cents << ORDINAL_BITS);
+    }
+
+    // First position with a price > cents
+    int upperBound(long cents) {
+        if (cents < 0) {
+            return 0;
+        }
+        if (cents >= MAX_CENTS) {
+            return size;
+        }
+        return insertionPoint((cents + 1) << ORDINAL_BITS);
+    }
+
+    long keyAt(int position) {
+        return keys[position];
+    }
+
+    private int insertionPoint(long key) {
+        int at = Arrays.binarySearch(keys, 0, size, key);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    private int indexOf(long key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void ensureCapacity() {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.zylo.product.search;
+
+import com.example.zylo.common.tx.AfterCommit;
+import com.example.zylo.product.entity.Product;
+import com.example.zylo.product.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-process inverted index over product name, description, SKU and specs (see IndexSegment)
+// plus bitmap indexes for the category / spec filters and their facet counts
+// Replaces LIKE '%keyword%' scans: a search touches the postings of its terms, not every row
+//
+// Built in the background at startup (searches fall back to the DB query until it is ready)
+// Product writes publish the product id on "catalog:product-changed" after commit,
+// every node (including the writer) reloads that product and re-indexes it
+// Rebuilt from the DB when too many ordinals are dead (updates / deletes), to reclaim memory
+//
+// A node applies a change some time after the catalog generations were bumped (after its own pub/sub
+// message), so results computed from the index are labelled with version() instead: this node's id plus
+// the number of changes applied so far. They are not put in the shared listing cache
+@Slf4j
+@Component
+public class ProductSearchIndex implements MessageListener {
+
+    public static final String CHANNEL = "catalog:product-changed";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final double compactionDeadRatio;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // Node id keeps versions of different nodes (or restarts) from ever being equal
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong appliedChanges = new AtomicLong();
+
+    // Guarded by lock
+    private IndexSegment segment = new IndexSegment();
+    private final Set<Long> changedDuringRebuild = new HashSet<>();
+    private volatile boolean ready;
+
+    public ProductSearchIndex(
+            ProductRepository productRepository,
+            StringRedisTemplate redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            @Value("${catalog.search.compaction-dead-ratio:0.3}") double compactionDeadRatio
+    ) {
+        this.productRepository = productRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.compactionDeadRatio = compactionDeadRatio;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuildInBackground();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Changes with every re-index / rebuild on this node (part of the search ETag)
+    public String version() {
+        return instanceId + "." + appliedChanges.get();
+    }
+
+    // null while the index is not built yet (caller falls back to the DB)
+    public SearchHits search(SearchCriteria criteria, int offset, int limit) {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return segment.search(criteria, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Category + price range sorted by price, null if the index can't answer (caller uses the DB)
+    public SearchHits browseByPrice(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                    boolean ascending, int offset, int limit) {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return segment.browseByPrice(categoryId, minPrice, maxPrice, ascending, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Product created / updated / deleted, re-indexed on every node once committed
+    public void productChanged(Long productId) {
+        AfterCommit.run(() -> {
+            try {
+                redisTemplate.convertAndSend(CHANNEL, String.valueOf(productId));
+            } catch (RuntimeException e) {
+                // Other nodes catch up on their next rebuild, this one at least is current
+                log.warn("Failed to publish product change {}: {}", productId, e.getMessage());
+                reindex(productId);
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        reindex(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+    }
+
+    // Full rebuild into a new segment (keyset batches of active products with specs), then swapped in
+    // Changes that arrive meanwhile are re-applied on the new segment
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            IndexSegment fresh = new IndexSegment();
+
+            long afterId = 0;
+            List<Product> batch;
+            do {
+                batch = productRepository.findIndexBatch(afterId, Limit.of(BATCH_SIZE));
+                for (Product product : batch) {
+                    fresh.add(product);
+                    afterId = product.getId();
+                }
+            } while (batch.size() == BATCH_SIZE);
+            fresh.seal();
+
+            Set<Long> changed;
+            lock.writeLock().lock();
+            try {
+                segment = fresh;
+                appliedChanges.incrementAndGet();
+                changed = new HashSet<>(changedDuringRebuild);
+                changedDuringRebuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            changed.forEach(this::reindex);
+
+            ready = true;
+            log.info("Product search index built: {} products, {} terms in {} ms",
+                    fresh.liveCount, fresh.terms.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("Product search index build failed, searches use the database", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    // Reclaims dead ordinals / postings once they are a large part of the index
+    // The rebuild reloads the whole catalog, so it runs on its own thread: the shared scheduler
+    // thread (TokenBlacklistFilter's rebuild, ...) is only used for the check
+    @Scheduled(fixedDelayString = "${catalog.search.compaction-check-ms:600000}")
+    public void compactIfNeeded() {
+        int dead;
+        int size;
+        lock.readLock().lock();
+        try {
+            dead = segment.deadCount();
+            size = segment.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (ready && size > 0 && dead > BATCH_SIZE && (double) dead / size > compactionDeadRatio) {
+            log.info("Compacting product search index ({} of {} ordinals dead)", dead, size);
+            rebuildInBackground();
+        }
+    }
+
+    // Daemon thread per rebuild (startup, compaction), a rebuild already running makes it return at once
+    private void rebuildInBackground() {
+        if (rebuilding.get()) {
+            return;
+        }
+        Thread builder = new Thread(this::rebuild, "product-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    private void reindex(Long productId) {
+        Optional<Product> product = productRepository.findWithSpecsById(productId);
+
+        lock.writeLock().lock();
+        try {
+            if (rebuilding.get()) {
+                changedDuringRebuild.add(productId);
+            }
+            if (product.isPresent() && Boolean.TRUE.equals(product.get().getIsActive())) {
+                segment.add(product.get());
+            } else {
+                segment.remove(productId);
+            }
+            appliedChanges.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
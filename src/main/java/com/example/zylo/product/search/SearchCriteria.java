@@ -0,0 +1,50 @@
+package com.example.zylo.product.search;
+
+import com.example.zylo.product.dto.productDtos.ProductSearchRequest;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// What the index filters on: keyword (optional), category, price range and spec values
+// Spec values of one facet are OR-ed (8GB or 16GB), facets are AND-ed
+public record SearchCriteria(
+        String keyword,
+        Long categoryId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Map<SpecFacet, Set<String>> specs
+) {
+
+    public static SearchCriteria from(ProductSearchRequest request) {
+        Map<SpecFacet, Set<String>> specs = new EnumMap<>(SpecFacet.class);
+        putValues(specs, SpecFacet.RAM, request.getRam());
+        putValues(specs, SpecFacet.STORAGE, request.getStorage());
+        putValues(specs, SpecFacet.COLOR, request.getColor());
+        putValues(specs, SpecFacet.SCREEN_SIZE, request.getScreenSize());
+        return new SearchCriteria(request.getKeyword(), request.getCategoryId(),
+                request.getMinPrice(), request.getMaxPrice(), specs);
+    }
+
+    public boolean hasKeyword() {
+        return keyword != null && !keyword.isBlank();
+    }
+
+    private static void putValues(Map<SpecFacet, Set<String>> specs, SpecFacet facet, List<String> values) {
+        if (values == null) {
+            return;
+        }
+        Set<String> trimmed = new LinkedHashSet<>();
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                trimmed.add(value.trim());
+            }
+        }
+        if (!trimmed.isEmpty()) {
+            specs.put(facet, trimmed);
+        }
+    }
+}
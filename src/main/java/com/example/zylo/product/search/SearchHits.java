@@ -0,0 +1,9 @@
+package com.example.zylo.product.search;
+
+import java.util.List;
+import java.util.Map;
+
+// One page of matching product ids (in rank order), the total number of matches,
+// and per spec facet the number of matches for each value (most common first)
+public record SearchHits(List<Long> productIds, long total, Map<String, Map<String, Long>> facets) {
+}
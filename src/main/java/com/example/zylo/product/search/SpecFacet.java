@@ -0,0 +1,36 @@
+package com.example.zylo.product.search;
+
+import com.example.zylo.product.entity.ProductSpecs;
+
+import java.util.function.Function;
+
+// ProductSpecs fields offered as search filters with counts
+// name: request parameter / response key, also the ProductSpecs attribute (JPA filter)
+public enum SpecFacet {
+
+    RAM("ram", ProductSpecs::getRam),
+    STORAGE("storage", ProductSpecs::getStorage),
+    COLOR("color", ProductSpecs::getColor),
+    SCREEN_SIZE("screenSize", ProductSpecs::getScreenSize);
+
+    private final String attribute;
+    private final Function<ProductSpecs, String> getter;
+
+    SpecFacet(String attribute, Function<ProductSpecs, String> getter) {
+        this.attribute = attribute;
+        this.getter = getter;
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    // Trimmed value, null if blank (not counted)
+    public String valueOf(ProductSpecs specs) {
+        if (specs == null) {
+            return null;
+        }
+        String value = getter.apply(specs);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
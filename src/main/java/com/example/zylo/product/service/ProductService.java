@@ -1,12 +1,18 @@
 package com.example.zylo.product.service;
 
 import com.example.zylo.common.dto.ApiResponse;
+import com.example.zylo.common.dto.CursorPage;
+import com.example.zylo.product.cache.ProductSnapshot;
 import com.example.zylo.product.dto.productDtos.CreateProductRequest;
+import com.example.zylo.product.dto.productDtos.ProductCardResponse;
+import com.example.zylo.product.dto.productDtos.ProductCursor;
 import com.example.zylo.product.dto.productDtos.ProductResponse;
 import com.example.zylo.product.dto.productDtos.ProductSearchRequest;
+import com.example.zylo.product.dto.productDtos.ProductSearchResponse;
 import com.example.zylo.product.dto.productDtos.UpdateProductRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -14,10 +20,14 @@ public interface ProductService {
 
     ProductResponse createProduct(CreateProductRequest request);
     ProductResponse updateProduct(Long id, UpdateProductRequest request);
-    ProductResponse getProductById(Long id);
-    Page<ProductResponse> getAllProducts(Pageable pageable);
-    Page<ProductResponse> searchProducts(ProductSearchRequest request);
-    Page<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable);
+    ProductSnapshot getProductSnapshot(Long id);
+    Long getProductSnapshotVersion(Long id);
+    Page<ProductCardResponse> getAllProducts(Pageable pageable);
+    ProductSearchResponse searchProducts(ProductSearchRequest request);
+    Page<ProductCardResponse> getProductsByCategory(Long categoryId, Pageable pageable);
+    Slice<ProductCardResponse> getAllProductsSlice(Pageable pageable);
+    Slice<ProductCardResponse> getProductsByCategorySlice(Long categoryId, Pageable pageable);
+    CursorPage<ProductCardResponse> scrollProducts(Long categoryId, ProductCursor.Order order, String cursor, int size);
     ApiResponse<String> deleteProduct(Long id);
     void updateStock(Long productId, int quantity);
     void decrementStock(Long productId, int quantity);
@@ -2,6 +2,8 @@ package com.example.zylo.product.service.impl;
 
 import com.example.zylo.common.dto.ApiResponse;
 import com.example.zylo.common.exception.ResourceNotFoundException;
+import com.example.zylo.common.tx.AfterCommit;
+import com.example.zylo.product.cache.CatalogGenerations;
 import com.example.zylo.product.dto.categoryDtos.CategoryResponse;
 import com.example.zylo.product.dto.categoryDtos.CreateCategoryRequest;
 import com.example.zylo.product.entity.Category;
@@ -23,6 +25,7 @@ import java.util.stream.Collectors;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CatalogGenerations catalogGenerations;
 
     // Create Category
     @Transactional
@@ -52,13 +55,16 @@ public class CategoryServiceImpl implements CategoryService {
                 .build();
 
         category = categoryRepository.save(category);
+        // New ETag for the category endpoints
+        AfterCommit.run(catalogGenerations::bumpCategories);
         log.info("Category created: {} (slug: {})", category.getName(), category.getSlug());
 
         return mapToResponse(category);
     }
 
     // Get all categories
-    @Cacheable(value = "categories", key = "'all'")
+    // sync: after an eviction only one request reloads the list (StampedeProtectedCache)
+    @Cacheable(value = "categories", key = "'all'", sync = true)
     public List<CategoryResponse> getAllCategories() {
          List<Category> rootCategories = categoryRepository.findAllWithParent();
          return rootCategories.stream()
@@ -100,6 +106,7 @@ public class CategoryServiceImpl implements CategoryService {
         // Check if category has products (No relation in the category table)
 
         categoryRepository.delete(category);
+        AfterCommit.run(catalogGenerations::bumpCategories);
         log.info("Category deleted: {}", category.getName());
         return ApiResponse.success("Category deleted successfully");
     }
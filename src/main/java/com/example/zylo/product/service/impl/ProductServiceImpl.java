@@ -1,7 +1,12 @@
 package com.example.zylo.product.service.impl;
 
 import com.example.zylo.common.dto.ApiResponse;
+import com.example.zylo.common.dto.CursorPage;
 import com.example.zylo.common.exception.ResourceNotFoundException;
+import com.example.zylo.common.tx.AfterCommit;
+import com.example.zylo.product.cache.CatalogCache;
+import com.example.zylo.product.cache.ProductSnapshot;
+import com.example.zylo.product.cache.ProductSnapshotStore;
 import com.example.zylo.product.dto.productDtos.*;
 import com.example.zylo.product.entity.Category;
 import com.example.zylo.product.entity.Product;
@@ -9,20 +14,32 @@ import com.example.zylo.product.entity.ProductSpecs;
 import com.example.zylo.product.repository.CategoryRepository;
 import com.example.zylo.product.repository.ProductRepository;
 import com.example.zylo.product.repository.ProductSpecsRepository;
+import com.example.zylo.product.search.ProductSearchIndex;
+import com.example.zylo.product.search.SearchCriteria;
+import com.example.zylo.product.search.SearchHits;
+import com.example.zylo.product.search.SpecFacet;
 import com.example.zylo.product.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -33,11 +50,14 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final ProductSpecsRepository productSpecsRepository;
     private final CategoryRepository categoryRepository;
+    private final CatalogCache catalogCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSnapshotStore productSnapshotStore;
+    private final JsonMapper jsonMapper;
 
     // Create Product
     @Override
     @Transactional
-    @CacheEvict(value = "products", allEntries = true)
     public ProductResponse createProduct(CreateProductRequest request) {
 
         // Validate SKU uniqueness
@@ -72,18 +92,25 @@ public class ProductServiceImpl implements ProductService {
             product.setSpecs(productSpecsRepository.save(productSpecs));
         }
 
+        // Only listings of this category (and the cross-category ones) get new cache keys
+        catalogCache.invalidateProduct(List.of(category.getId()));
+        productSearchIndex.productChanged(product.getId());
+        refreshSnapshot(product);
+
         log.info("Product created: {} (SKU: {})", product.getName(), product.getSku());
         return mapToResponse(product);
     }
 
     // Update Product
     @Transactional
-    @CacheEvict(value = {"products", "product"}, allEntries = true)
     public ProductResponse updateProduct(Long id, UpdateProductRequest request) {
 
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
 
+        // A category change affects the listings of both categories
+        Long previousCategoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+
         // Update fields if provided
         if (request.getName() != null) product.setName(request.getName());
         if (request.getDescription() != null) product.setDescription(request.getDescription());
@@ -112,32 +139,62 @@ public class ProductServiceImpl implements ProductService {
                 updateSpecs(specs, request.getSpecs());
                 productSpecsRepository.save(specs);
             }
+            // Spec changes don't dirty the product row, updatedAt (snapshot version / ETag) has to move anyway
+            product.setUpdatedAt(LocalDateTime.now());
         }
 
-        product = productRepository.save(product);
+        // Flushed, so @PreUpdate has set updatedAt before the snapshot is rendered
+        product = productRepository.saveAndFlush(product);
+
+        // Listings of its categories only, the snapshot is re-rendered below
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        catalogCache.invalidateProduct(Arrays.asList(previousCategoryId, categoryId));
+        productSearchIndex.productChanged(id);
+        refreshSnapshot(product);
+
         log.info("Product updated: {}", product.getSku());
         return mapToResponse(product);
     }
 
-    // Get Product by Id
-    @Cacheable(value = "product", key = "#id")
-    public ProductResponse getProductById(Long id) {
+    // Product details as the final response bytes (ApiResponse JSON), for GET /api/products/{id}
+    // Served from the snapshot store, rendered from the DB only when it has no snapshot
+    public ProductSnapshot getProductSnapshot(Long id) {
 
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
-        return mapToResponse(product);
+        return productSnapshotStore.get(id, () -> render(productRepository.findWithDetailsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id))));
+    }
+
+    // Version of the stored snapshot only (conditional requests), null if none is stored
+    public Long getProductSnapshotVersion(Long id) {
+        return productSnapshotStore.version(id);
     }
 
     // Get all products (paginated)
-    @Cacheable(value = "products", key = "#pageable.pageNumber + '-' + #pageable.pageSize")
-    public Page<ProductResponse> getAllProducts(Pageable pageable) {
+    // Cached per page, size and sort (see CatalogCache)
+    // Listings select card columns only (ProductCardResponse), full entities are for the product snapshot
+    public Page<ProductCardResponse> getAllProducts(Pageable pageable) {
 
-        Page<Product> products = productRepository.findByIsActiveTrue(pageable);
-        return products.map(this::mapToResponse);
+        return catalogCache.allProducts(pageable, () ->
+                productRepository.findCards(active(), pageable));
     }
 
     // Search and filter products
-    public Page<ProductResponse> searchProducts(ProductSearchRequest request) {
+    // Keyword searches go to the in-memory index (ranked by relevance), the DB only loads the page
+    // Facet counts always come from the index bitmaps (no GROUP BY per facet)
+    public ProductSearchResponse searchProducts(ProductSearchRequest request) {
+
+        SearchCriteria criteria = SearchCriteria.from(request);
+
+        if (criteria.hasKeyword()) {
+            Pageable pageable = PageRequest.of(request.getPage(), request.getSize());
+            SearchHits hits = productSearchIndex.search(criteria, (int) pageable.getOffset(), pageable.getPageSize());
+            if (hits != null) {
+                return ProductSearchResponse.builder()
+                        .products(hydrate(hits, pageable))
+                        .facets(hits.facets())
+                        .build();
+            }
+        }
 
         Pageable pageable = PageRequest.of(
                 request.getPage(),
@@ -145,14 +202,14 @@ public class ProductServiceImpl implements ProductService {
                 Sort.by(
                         request.getSortDir().equalsIgnoreCase("asc")
                         ? Sort.Direction.ASC : Sort.Direction.DESC,
-                        request.getSortBy()
+                        sortProperty(request.getSortBy())
                 )
         );
 
-        Specification<Product> spec = (root, query, cb) -> cb.isTrue(root.get("isActive"));
+        Specification<Product> spec = active();
 
-        // Keyword search
-        if (request.getKeyword() != null && !request.getKeyword().isEmpty()) {
+        // Keyword search (only while the search index is building)
+        if (criteria.hasKeyword()) {
             String keyword = "%" + request.getKeyword().toLowerCase() + "%";
             spec = spec.and((root, query, cb) ->
                     cb.like(cb.lower(root.get("name")), keyword));
@@ -160,30 +217,130 @@ public class ProductServiceImpl implements ProductService {
 
         // Category filter
         if (request.getCategoryId() != null) {
-            spec = spec.and((root, query, cb) ->
-                    cb.equal(root.get("category").get("id"), request.getCategoryId()));
+            spec = spec.and(inCategory(request.getCategoryId()));
         }
 
         // Price range filter
         if (request.getMinPrice() != null) {
             spec = spec.and((root, query, cb) ->
-                    cb.greaterThanOrEqualTo(root.get("price"), request.getMinPrice()));
+                    cb.greaterThanOrEqualTo(root.get("basePrice"), request.getMinPrice()));
         }
 
         if (request.getMaxPrice() != null) {
             spec = spec.and((root, query, cb) ->
-                    cb.lessThanOrEqualTo(root.get("price"), request.getMaxPrice()));
+                    cb.lessThanOrEqualTo(root.get("basePrice"), request.getMaxPrice()));
+        }
+
+        // Spec filters (indexed product_specs columns)
+        for (Map.Entry<SpecFacet, Set<String>> filter : criteria.specs().entrySet()) {
+            spec = spec.and((root, query, cb) ->
+                    root.join("specs").get(filter.getKey().attribute()).in(filter.getValue()));
+        }
+
+        Page<ProductCardResponse> products;
+
+        // Filter-only searches are cached, keyword searches are too many distinct keys
+        // Pages from the price index are not: this node may not have applied a change yet that
+        // the generation in the cache key already includes
+        if (!criteria.hasKeyword()) {
+            Specification<Product> filters = spec;
+            Page<ProductCardResponse> byPrice = browseByPrice(criteria, pageable);
+            products = byPrice != null
+                    ? byPrice
+                    : catalogCache.search(request, pageable, () -> productRepository.findCards(filters, pageable));
+        } else {
+            products = productRepository.findCards(spec, pageable);
+        }
+
+        // Facets only (no page) for filter-only searches, empty while the index is building
+        SearchHits facets = productSearchIndex.search(criteria, 0, 0);
+        return ProductSearchResponse.builder()
+                .products(products)
+                .facets(facets != null ? facets.facets() : Map.of())
+                .build();
+    }
+
+    // Category + price range sorted by price: ids from the sorted price index, no filtered / COUNT query
+    // null when the index can't answer (other sort, spec filters, index building)
+    private Page<ProductCardResponse> browseByPrice(SearchCriteria criteria, Pageable pageable) {
+        Sort.Order order = pageable.getSort().getOrderFor("basePrice");
+        if (order == null || !criteria.specs().isEmpty()) {
+            return null;
+        }
+        SearchHits hits = productSearchIndex.browseByPrice(criteria.categoryId(), criteria.minPrice(),
+                criteria.maxPrice(), order.isAscending(), (int) pageable.getOffset(), pageable.getPageSize());
+        return hits != null ? hydrate(hits, pageable) : null;
+    }
+
+    // The API sorts by "price", the entity field is basePrice
+    private static String sortProperty(String sortBy) {
+        return "price".equals(sortBy) ? "basePrice" : sortBy;
+    }
+
+    // 1 query for the page of hits, then back in the index's order
+    private Page<ProductCardResponse> hydrate(SearchHits hits, Pageable pageable) {
+        if (hits.productIds().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, hits.total());
         }
 
-        Page<Product> products = productRepository.findAll(spec, pageable);
-        return products.map(this::mapToResponse);
+        Map<Long, ProductCardResponse> cards = productRepository.findCardsByIdIn(hits.productIds())
+                .stream()
+                .collect(Collectors.toMap(ProductCardResponse::getId, Function.identity()));
+
+        List<ProductCardResponse> content = hits.productIds().stream()
+                .map(cards::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, hits.total());
     }
 
     // Get products by category
-    public Page<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable) {
+    public Page<ProductCardResponse> getProductsByCategory(Long categoryId, Pageable pageable) {
+
+        return catalogCache.categoryProducts(categoryId, pageable, () ->
+                productRepository.findCards(active().and(inCategory(categoryId)), pageable));
+    }
+
+    // Slice mode: no COUNT(*), the client only learns whether there is a next page
+    // Not cached, meant for deep pages (the first pages come from the cached Page listings)
+    public Slice<ProductCardResponse> getAllProductsSlice(Pageable pageable) {
+        return productRepository.findCardSlice(active(), pageable);
+    }
 
-        Page<Product> products = productRepository.findByCategoryIdAndIsActiveTrue(categoryId, pageable);
-        return products.map(this::mapToResponse);
+    public Slice<ProductCardResponse> getProductsByCategorySlice(Long categoryId, Pageable pageable) {
+        return productRepository.findCardSlice(active().and(inCategory(categoryId)), pageable);
+    }
+
+    // Keyset pagination: seeks past the cursor's (createdAt | basePrice, id) instead of skipping OFFSET rows
+    // Same cost for every page (index range scan from the cursor), no COUNT(*)
+    public CursorPage<ProductCardResponse> scrollProducts(Long categoryId, ProductCursor.Order order,
+                                                          String cursor, int size) {
+
+        ProductCursor after = cursor != null && !cursor.isBlank() ? ProductCursor.decode(cursor, order) : null;
+
+        Specification<Product> spec = categoryId != null ? active().and(inCategory(categoryId)) : active();
+
+        // One extra row tells whether there is a next page
+        List<ProductCardResponse> cards = productRepository.findCardsAfter(spec, order, after, size + 1);
+        boolean hasNext = cards.size() > size;
+        if (hasNext) {
+            cards = cards.subList(0, size);
+        }
+
+        return CursorPage.<ProductCardResponse>builder()
+                .content(cards)
+                .size(cards.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? ProductCursor.after(order, cards.get(cards.size() - 1)).encode() : null)
+                .build();
+    }
+
+    private static Specification<Product> active() {
+        return (root, query, cb) -> cb.isTrue(root.get("isActive"));
+    }
+
+    private static Specification<Product> inCategory(Long categoryId) {
+        return (root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId);
     }
 
     // Get featured Products
@@ -191,7 +348,6 @@ public class ProductServiceImpl implements ProductService {
 
     // Delete products (soft delete)
     @Transactional
-    @CacheEvict(value = {"products", "product"}, allEntries = true)
     public ApiResponse<String> deleteProduct(Long id) {
 
         Product product = productRepository.findById(id)
@@ -199,7 +355,12 @@ public class ProductServiceImpl implements ProductService {
 
         // soft delete
         product.setIsActive(false);
-        productRepository.save(product);
+        productRepository.saveAndFlush(product);
+
+        catalogCache.invalidateProduct(
+                Collections.singletonList(product.getCategory() != null ? product.getCategory().getId() : null));
+        productSearchIndex.productChanged(id);
+        refreshSnapshot(product);
 
         log.info("Product soft deleted: {}", product.getSku());
         return ApiResponse.success("Product deleted successfully");
@@ -212,8 +373,10 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
 
+        Product.StockStatus previousStatus = product.getStockStatus();
         product.setStockQuantity(quantity);
-        productRepository.save(product);
+        productRepository.saveAndFlush(product);
+        stockChanged(product, previousStatus);
         log.info("Stock updated for {}: {}", product.getSku(), quantity);
     }
 
@@ -223,8 +386,10 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
 
+        Product.StockStatus previousStatus = product.getStockStatus();
         product.decrementStock(quantity);
-        productRepository.save(product);
+        productRepository.saveAndFlush(product);
+        stockChanged(product, previousStatus);
         log.info("Stock decremented for {}: -{}", product.getSku(), quantity);
     }
 
@@ -236,6 +401,28 @@ public class ProductServiceImpl implements ProductService {
     }
 
     // Helper methods
+
+    // Listing cards show the stock status, so a status change (not every quantity change) gives
+    // the product's listings new cache keys / ETags
+    private void stockChanged(Product product, Product.StockStatus previousStatus) {
+        if (product.getStockStatus() != previousStatus) {
+            catalogCache.invalidateProduct(
+                    Collections.singletonList(product.getCategory() != null ? product.getCategory().getId() : null));
+        }
+        refreshSnapshot(product);
+    }
+
+    // Rendered inside the write transaction (lazy category / specs still load), stored once it commits
+    private void refreshSnapshot(Product product) {
+        ProductSnapshot snapshot = render(product);
+        AfterCommit.run(() -> productSnapshotStore.put(product.getId(), snapshot));
+    }
+
+    // Same mapper as the MVC message converter, so the bytes match what the controller would write
+    private ProductSnapshot render(Product product) {
+        byte[] body = jsonMapper.writeValueAsBytes(ApiResponse.success(mapToResponse(product)));
+        return ProductSnapshot.of(product.getId(), product.getUpdatedAt(), body);
+    }
     private ProductSpecs buildSpecs(ProductSpecsRequest request, Product product) {
         return ProductSpecs.builder()
                 .product(product)
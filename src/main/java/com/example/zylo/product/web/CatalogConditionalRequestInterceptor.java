@@ -0,0 +1,112 @@
+package com.example.zylo.product.web;
+
+import com.example.zylo.product.cache.CatalogGenerations;
+import com.example.zylo.product.search.ProductSearchIndex;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+// Conditional GETs for the public catalog endpoints
+// ETags come from the catalog generations (local mirror, see CatalogGenerations), so a matching
+// If-None-Match gets 304 before the controller runs: no DB query, no cache read, no serialization
+//
+// Listings: "products-g{all}" / "category-{id}-g{category}" (bumped by every product write in scope)
+// Search: "search-g{all}-i{index version}", results and facets also come from this node's search index,
+// which applies a change some time after the generation moved
+// Categories: "categories-g{categories}"
+// Product details: ETag + Last-Modified from the product snapshot (ProductController), only Cache-Control here
+@Slf4j
+@Component
+public class CatalogConditionalRequestInterceptor implements HandlerInterceptor {
+
+    private final CatalogGenerations generations;
+    private final ProductSearchIndex searchIndex;
+    private final String listingsCacheControl;
+    private final String productCacheControl;
+    private final String categoriesCacheControl;
+
+    public CatalogConditionalRequestInterceptor(
+            CatalogGenerations generations,
+            ProductSearchIndex searchIndex,
+            @Value("${catalog.http.cache-control.listings:public, no-cache}") String listingsCacheControl,
+            @Value("${catalog.http.cache-control.product:public, no-cache}") String productCacheControl,
+            @Value("${catalog.http.cache-control.categories:public, no-cache}") String categoriesCacheControl
+    ) {
+        this.generations = generations;
+        this.searchIndex = searchIndex;
+        this.listingsCacheControl = listingsCacheControl;
+        this.productCacheControl = productCacheControl;
+        this.categoriesCacheControl = categoriesCacheControl;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return true;
+        }
+
+        String etag;
+        try {
+            switch (pattern) {
+                case "/api/products", "/api/products/scroll" -> {
+                    cacheControl(response, listingsCacheControl);
+                    etag = "\"products-g" + generations.all() + "\"";
+                }
+                case "/api/products/search" -> {
+                    cacheControl(response, listingsCacheControl);
+                    etag = "\"search-g" + generations.all() + "-i" + searchIndex.version() + "\"";
+                }
+                case "/api/products/category/{categoryId}" -> {
+                    Long categoryId = Long.valueOf(uriVariables(request).get("categoryId"));
+                    cacheControl(response, listingsCacheControl);
+                    etag = "\"category-" + categoryId + "-g" + generations.category(categoryId) + "\"";
+                }
+                case "/api/products/{id}" -> {
+                    cacheControl(response, productCacheControl);
+                    return true;
+                }
+                case "/api/categories", "/api/categories/{id}", "/api/categories/slug/{slug}" -> {
+                    cacheControl(response, categoriesCacheControl);
+                    etag = "\"categories-g" + generations.categories() + "\"";
+                }
+                default -> {
+                    return true;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Bad path variable (the controller answers 400) or generations unavailable: full response, no ETag
+            log.debug("No ETag for {}: {}", request.getRequestURI(), e.getMessage());
+            return true;
+        }
+
+        // Sets the ETag header, and 304 if If-None-Match matches
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    // Blank disables the header for that group
+    private static void cacheControl(HttpServletResponse response, String value) {
+        if (!value.isBlank()) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> uriVariables(HttpServletRequest request) {
+        return (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+    }
+}
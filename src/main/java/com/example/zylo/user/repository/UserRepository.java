@@ -1,9 +1,11 @@
 package com.example.zylo.user.repository;
 
+import com.example.zylo.auth.dto.AuthenticatedUser;
 import com.example.zylo.user.entity.User;
-import io.lettuce.core.dynamic.annotation.Param;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -18,6 +20,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.email = :email AND u.isDeleted = false")
     Optional<User> findActiveByEmail(@Param("email") String email);
 
+    // Principal projection (for the auth filter), only loads the 4 columns it needs
+    @Query("SELECT new com.example.zylo.auth.dto.AuthenticatedUser(u.id, u.email, u.role, COALESCE(u.isDeleted, false)) " +
+            "FROM User u WHERE u.email = :email")
+    Optional<AuthenticatedUser> findPrincipalByEmail(@Param("email") String email);
+
+    // Password re-hash (cost upgrade on login), single column update without loading the entity
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE u.email = :email")
+    int updatePasswordHash(@Param("email") String email, @Param("passwordHash") String passwordHash);
+
     Optional<User> findByPhoneNo(String phoneNo);
 
     // Count users by role
@@ -0,0 +1,154 @@
+package com.example.zylo.user.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Collects login timestamps in memory and writes them in batches
+// (instead of one UPDATE + transaction per login)
+//
+// Repeated logins of a user between flushes coalesce into one row (latest timestamp wins)
+// Flushed every flush-interval, or as soon as batch-size users are pending, and on shutdown
+// One multi-row UPDATE ... CASE per chunk of batch-size users
+// Flushes run on the tracker's own thread, never on the login request
+@Slf4j
+@Service
+public class LastLoginTracker {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Counter flushedRows;
+
+    public LastLoginTracker(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${user.last-login.batch-size:500}") int batchSize,
+            @Value("${user.last-login.flush-interval:10s}") Duration flushInterval
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "last-login-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("user.last-login.pending", pending, Map::size)
+                .description("Login timestamps waiting to be written")
+                .register(meterRegistry);
+        this.flushedRows = Counter.builder("user.last-login.flushed")
+                .description("Login timestamps written to the user table")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Called on every successful login, memory only
+    public void record(Long userId, LocalDateTime loginAt) {
+        pending.merge(userId, loginAt, (current, latest) -> latest.isAfter(current) ? latest : current);
+
+        // Size trigger: one flush request at a time
+        if (pending.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flushSafely();
+            });
+        }
+    }
+
+    // Graceful shutdown: stop the timer, then write whatever is left
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    // Writes pending timestamps, returns the number of users written
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        // Snapshot, then remove only the entries that didn't change in the meantime
+        // (a login during the flush stays pending for the next one)
+        List<Map.Entry<Long, LocalDateTime>> batch = new ArrayList<>(batchSize);
+        int written = 0;
+        for (Map.Entry<Long, LocalDateTime> entry : List.copyOf(pending.entrySet())) {
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+            if (batch.size() == batchSize) {
+                written += writeBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            written += writeBatch(batch);
+        }
+
+        flushedRows.increment(written);
+        log.debug("Flushed last login timestamps for {} users", written);
+        return written;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            // Entries stay pending, retried on the next flush
+            log.error("Failed to flush last login timestamps, {} pending", pending.size(), e);
+        }
+    }
+
+    // UPDATE user SET last_login_at = CASE id WHEN ? THEN ? ... END WHERE id IN (?, ...)
+    private int writeBatch(List<Map.Entry<Long, LocalDateTime>> batch) {
+        StringBuilder sql = new StringBuilder("UPDATE user SET last_login_at = CASE id");
+        List<Object> args = new ArrayList<>(batch.size() * 3);
+
+        for (Map.Entry<Long, LocalDateTime> entry : batch) {
+            sql.append(" WHEN ? THEN ?");
+            args.add(entry.getKey());
+            args.add(Timestamp.valueOf(entry.getValue()));
+        }
+        sql.append(" ELSE last_login_at END WHERE id IN (");
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            args.add(batch.get(i).getKey());
+        }
+        sql.append(")");
+
+        jdbcTemplate.update(sql.toString(), args.toArray());
+
+        for (Map.Entry<Long, LocalDateTime> entry : batch) {
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+        return batch.size();
+    }
+}
@@ -0,0 +1,11 @@
+-- Composite indexes for keyset (cursor) pagination of product listings
+-- Each one matches a listing filter + ORDER BY (sort column, id), so a page is an index range scan
+-- starting right after the cursor, no matter how deep (no OFFSET rows to skip)
+ALTER TABLE product
+    -- 1. All products: newest first / by price
+    ADD INDEX idx_active_created (is_active, created_at, id),
+    ADD INDEX idx_active_price (is_active, base_price, id),
+
+    -- 2. One category: newest first / by price
+    ADD INDEX idx_category_active_created (category_id, is_active, created_at, id),
+    ADD INDEX idx_category_active_price (category_id, is_active, base_price, id);
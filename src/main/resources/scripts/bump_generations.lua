@@ -0,0 +1,12 @@
+-- Increments catalog generation counters
+-- A missing counter (never bumped, or lost in a flush / failover without persistence) starts at a random
+-- value instead of 0, so cache keys and ETags built from it never repeat ones handed out before the reset
+-- KEYS: generation counters
+-- ARGV[i]: random start for KEYS[i], only used if it doesn't exist
+-- Returns the new values, in KEYS order
+local generations = {}
+for i, key in ipairs(KEYS) do
+    redis.call('SET', key, ARGV[i], 'NX')
+    generations[i] = redis.call('INCR', key)
+end
+return generations
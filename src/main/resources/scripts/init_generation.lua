@@ -0,0 +1,7 @@
+-- Reads a catalog generation counter, creating it at a random value if it doesn't exist
+-- (same reason as bump_generations.lua: a reset must not bring back old generations)
+-- KEYS[1]: generation counter
+-- ARGV[1]: random start
+-- Returns the current value
+redis.call('SET', KEYS[1], ARGV[1], 'NX')
+return tonumber(redis.call('GET', KEYS[1]))
@@ -0,0 +1,40 @@
+-- Login token buckets, one per client IP (KEYS[1]) and one per email (KEYS[2])
+-- ARGV[1], ARGV[2]: IP bucket capacity, refill (tokens per millisecond)
+-- ARGV[3], ARGV[4]: email bucket capacity, refill (tokens per millisecond)
+-- ARGV[5]: key ttl (millis), time for an empty bucket to fill up again
+-- Takes one token from both buckets or from neither (a blocked email doesn't drain the IP bucket, and vice versa)
+-- Returns 0 if allowed, otherwise millis until both buckets have a token again (at least 1)
+-- Uses the Redis clock, so app nodes with skewed clocks share the same buckets consistently
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local function available(key, capacity, rate)
+    local bucket = redis.call('HMGET', key, 'tokens', 'ts')
+    local tokens = tonumber(bucket[1]) or capacity
+    local ts = tonumber(bucket[2]) or now
+    return math.min(capacity, tokens + math.max(0, now - ts) * rate)
+end
+
+local ipCapacity, ipRate = tonumber(ARGV[1]), tonumber(ARGV[2])
+local emailCapacity, emailRate = tonumber(ARGV[3]), tonumber(ARGV[4])
+
+local ipTokens = available(KEYS[1], ipCapacity, ipRate)
+local emailTokens = available(KEYS[2], emailCapacity, emailRate)
+
+if ipTokens >= 1 and emailTokens >= 1 then
+    redis.call('HSET', KEYS[1], 'tokens', tostring(ipTokens - 1), 'ts', now)
+    redis.call('PEXPIRE', KEYS[1], ARGV[5])
+    redis.call('HSET', KEYS[2], 'tokens', tostring(emailTokens - 1), 'ts', now)
+    redis.call('PEXPIRE', KEYS[2], ARGV[5])
+    return 0
+end
+
+-- Rejected: nothing is written
+local wait = 1
+if ipTokens < 1 then
+    wait = math.max(wait, math.ceil((1 - ipTokens) / ipRate))
+end
+if emailTokens < 1 then
+    wait = math.max(wait, math.ceil((1 - emailTokens) / emailRate))
+end
+return wait
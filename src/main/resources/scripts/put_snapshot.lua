@@ -0,0 +1,12 @@
+-- Stores a product snapshot unless a newer version is already stored
+-- (a slow render of an older version must not overwrite the one written after a product update)
+-- KEYS[1]: snapshot hash
+-- ARGV[1]: version (updatedAt millis), ARGV[2]: etag, ARGV[3]: body, ARGV[4]: ttl (millis)
+-- Returns 1 if stored, 0 if a newer version is kept
+local current = tonumber(redis.call('HGET', KEYS[1], 'version') or '-1')
+if current > tonumber(ARGV[1]) then
+    return 0
+end
+redis.call('HSET', KEYS[1], 'version', ARGV[1], 'etag', ARGV[2], 'body', ARGV[3])
+redis.call('PEXPIRE', KEYS[1], ARGV[4])
+return 1
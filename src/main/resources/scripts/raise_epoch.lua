@@ -0,0 +1,14 @@
+-- Raises revocation epochs, never lowers them (an older "issued before" must not un-revoke tokens)
+-- KEYS: epoch keys
+-- ARGV[1]: epoch (seconds), ARGV[2]: ttl (millis)
+-- Returns the number of keys that were raised
+local epoch = tonumber(ARGV[1])
+local raised = 0
+for _, key in ipairs(KEYS) do
+    local current = tonumber(redis.call('GET', key) or '0')
+    if epoch > current then
+        redis.call('SET', key, ARGV[1], 'PX', ARGV[2])
+        raised = raised + 1
+    end
+end
+return raised
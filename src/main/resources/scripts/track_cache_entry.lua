@@ -0,0 +1,19 @@
+-- Keeps a cache at its max entries, evicting the oldest writes first
+-- KEYS[1]: the cache's index (sorted set: entry key -> write time)
+-- ARGV[1]: entry key, ARGV[2]: now (millis), ARGV[3]: max entries, ARGV[4]: max entry TTL (millis)
+-- Returns the number of entries evicted
+-- Deletes entry keys that aren't in KEYS (fine on a single Redis, not on a cluster)
+local now = tonumber(ARGV[2])
+redis.call('ZADD', KEYS[1], now, ARGV[1])
+-- Written before the max TTL: expired on their own already
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - tonumber(ARGV[4]))
+local evicted = 0
+local excess = redis.call('ZCARD', KEYS[1]) - tonumber(ARGV[3])
+if excess > 0 then
+    local oldest = redis.call('ZPOPMIN', KEYS[1], excess)
+    for i = 1, #oldest, 2 do
+        evicted = evicted + redis.call('DEL', oldest[i])
+    end
+end
+redis.call('PEXPIRE', KEYS[1], ARGV[4])
+return evicted
@@ -0,0 +1,38 @@
+package com.example.zylo.auth.cache;
+
+import com.example.zylo.auth.dto.AuthenticatedUser;
+import com.example.zylo.user.entity.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuthenticatedUserSerializerTest {
+
+    private final AuthenticatedUserSerializer serializer = new AuthenticatedUserSerializer();
+
+    @Test
+    @DisplayName("Should round trip principal in a compact form")
+    void shouldRoundTripPrincipal() {
+        // Given
+        AuthenticatedUser user = new AuthenticatedUser(42L, "john@example.com", User.Role.ADMIN, false);
+
+        // When
+        byte[] bytes = serializer.serialize(user);
+
+        // Then
+        assertThat(bytes.length).isLessThan(64);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(user);
+    }
+
+    @Test
+    @DisplayName("Should treat old JSON entries as a cache miss")
+    void shouldTreatLegacyJsonAsMiss() {
+        byte[] json = "{\"@class\":\"com.example.zylo.user.entity.User\",\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(serializer.deserialize(json)).isNull();
+        assertThat(serializer.deserialize(null)).isNull();
+    }
+}
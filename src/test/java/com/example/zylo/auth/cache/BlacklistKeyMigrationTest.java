@@ -0,0 +1,59 @@
+package com.example.zylo.auth.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BlacklistKeyMigrationTest {
+
+    @Mock
+    private RedisTemplate<String, String> jwtRedisTemplate;
+
+    @Test
+    @DisplayName("Should skip keys that disappeared after SCAN and migrate the rest")
+    void shouldSkipMissingKeys() {
+        // Given: the first key was migrated by another node (or expired) after SCAN returned it
+        String gone = "blacklist:header.payload.gone";
+        String legacy = "blacklist:header.payload.signature";
+        Cursor<String> keys = cursor(List.of(gone, legacy));
+        when(jwtRedisTemplate.scan(any(ScanOptions.class))).thenReturn(keys);
+        when(jwtRedisTemplate.renameIfAbsent(gone, "blacklist:" + TokenDigest.of("header.payload.gone")))
+                .thenThrow(new RedisSystemException("ERR no such key", null));
+        when(jwtRedisTemplate.hasKey(gone)).thenReturn(false);
+        when(jwtRedisTemplate.renameIfAbsent(legacy, "blacklist:" + TokenDigest.of("header.payload.signature")))
+                .thenReturn(true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BlacklistKeyMigration migration = new BlacklistKeyMigration(jwtRedisTemplate, registry, true);
+
+        // When
+        migration.migrate();
+
+        // Then
+        verify(jwtRedisTemplate).renameIfAbsent(legacy, "blacklist:" + TokenDigest.of("header.payload.signature"));
+        assertThat(registry.get("auth.blacklist.migration.keys").counter().count()).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cursor<String> cursor(List<String> keys) {
+        Iterator<String> iterator = keys.iterator();
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        return cursor;
+    }
+}
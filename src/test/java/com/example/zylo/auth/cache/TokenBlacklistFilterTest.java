@@ -0,0 +1,77 @@
+package com.example.zylo.auth.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenBlacklistFilterTest {
+
+    @Mock
+    private RedisTemplate<String, String> jwtRedisTemplate;
+
+    private TokenBlacklistFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new TokenBlacklistFilter(jwtRedisTemplate, null, new SimpleMeterRegistry(), 1000, 0.001);
+    }
+
+    @Test
+    @DisplayName("Should send checks to Redis after a resubscription until the filter is rebuilt")
+    void shouldNotTrustFilterAfterMissedMessages() {
+        // Given: filter built while nothing was blacklisted
+        when(jwtRedisTemplate.scan(any(ScanOptions.class))).thenAnswer(invocation -> cursor(List.of()));
+        filter.rebuild();
+        assertThat(filter.mightBeBlacklisted("jti-1")).isFalse();
+
+        // When: "jti-1" blacklisted while the subscription was down (message lost), then resubscribed
+        // (the rebuild triggered by the resubscription is held until the checks below are done)
+        CountDownLatch scanReleased = new CountDownLatch(1);
+        when(jwtRedisTemplate.scan(any(ScanOptions.class))).thenAnswer(invocation -> {
+            scanReleased.await(5, TimeUnit.SECONDS);
+            return cursor(List.of("blacklist:jti-1"));
+        });
+        filter.onChannelSubscribed(bytes(TokenBlacklistFilter.CHANNEL), 1);
+
+        // Then
+        assertThat(filter.mightBeBlacklisted("jti-1")).isTrue();
+        assertThat(filter.mightBeBlacklisted("jti-2")).isTrue();
+
+        // And after the rebuild the filter is used again, with the missed entry
+        scanReleased.countDown();
+        filter.rebuild();
+        assertThat(filter.mightBeBlacklisted("jti-1")).isTrue();
+        assertThat(filter.mightBeBlacklisted("jti-2")).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cursor<String> cursor(List<String> keys) {
+        Iterator<String> iterator = keys.iterator();
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        lenient().when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        return cursor;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
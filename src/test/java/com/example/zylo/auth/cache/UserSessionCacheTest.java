@@ -0,0 +1,137 @@
+package com.example.zylo.auth.cache;
+
+import com.example.zylo.auth.dto.AuthenticatedUser;
+import com.example.zylo.user.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserSessionCacheTest {
+
+    private static final String EMAIL = "john@example.com";
+    private static final String KEY = UserSessionCache.KEY_PREFIX + EMAIL;
+
+    @Mock
+    private RedisTemplate<String, AuthenticatedUser> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, AuthenticatedUser> valueOperations;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AuthenticatedUser user = new AuthenticatedUser(1L, EMAIL, User.Role.CUSTOMER, false);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private UserSessionCache sessionCache;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        sessionCache = new UserSessionCache(redisTemplate, stringRedisTemplate, listenerContainer, meterRegistry,
+                Duration.ofSeconds(30), 100, Duration.ofMinutes(30));
+    }
+
+    @Test
+    @DisplayName("Should answer from the local tier without Redis or the loader")
+    void shouldServeLocalHit() {
+        // Given
+        sessionCache.putLocal(EMAIL, user);
+
+        // When
+        AuthenticatedUser cached = sessionCache.get(EMAIL, this::load);
+
+        // Then
+        assertThat(cached).isEqualTo(user);
+        assertThat(loads.get()).isZero();
+        verifyNoInteractions(redisTemplate);
+        assertThat(lookups("local")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fill the local tier from a Redis hit")
+    void shouldPopulateLocalFromRedisHit() {
+        // Given
+        when(valueOperations.get(KEY)).thenReturn(user);
+
+        // When
+        AuthenticatedUser first = sessionCache.get(EMAIL, this::load);
+        AuthenticatedUser second = sessionCache.get(EMAIL, this::load);
+
+        // Then: second lookup answered locally
+        assertThat(first).isEqualTo(user);
+        assertThat(second).isEqualTo(user);
+        assertThat(loads.get()).isZero();
+        verify(valueOperations, times(1)).get(KEY);
+        assertThat(lookups("redis")).isEqualTo(1);
+        assertThat(lookups("local")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should load through to the database on a miss in both tiers")
+    void shouldLoadThroughOnDoubleMiss() {
+        // Given
+        when(valueOperations.get(KEY)).thenReturn(null);
+
+        // When
+        AuthenticatedUser loaded = sessionCache.get(EMAIL, this::load);
+        AuthenticatedUser again = sessionCache.get(EMAIL, this::load);
+
+        // Then: written to Redis with its TTL, kept locally
+        assertThat(loaded).isEqualTo(user);
+        assertThat(again).isEqualTo(user);
+        assertThat(loads.get()).isEqualTo(1);
+        verify(valueOperations).set(KEY, user, Duration.ofMinutes(30).toMillis(), TimeUnit.MILLISECONDS);
+        verify(valueOperations, times(1)).get(KEY);
+        assertThat(lookups("database")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop the local entry on an invalidation message")
+    void shouldDropLocalEntryOnInvalidationMessage() {
+        // Given: an old principal locally, the current one in Redis
+        AuthenticatedUser promoted = new AuthenticatedUser(1L, EMAIL, User.Role.ADMIN, false);
+        sessionCache.putLocal(EMAIL, user);
+        when(valueOperations.get(KEY)).thenReturn(promoted);
+
+        // When: another node evicted the user
+        sessionCache.onMessage(new DefaultMessage(
+                UserSessionCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                EMAIL.getBytes(StandardCharsets.UTF_8)), null);
+
+        // Then
+        assertThat(sessionCache.get(EMAIL, this::load)).isEqualTo(promoted);
+        assertThat(loads.get()).isZero();
+    }
+
+    private AuthenticatedUser load() {
+        loads.incrementAndGet();
+        return user;
+    }
+
+    private double lookups(String tier) {
+        return meterRegistry.get("auth.session.cache.lookups").tag("tier", tier).counter().count();
+    }
+}
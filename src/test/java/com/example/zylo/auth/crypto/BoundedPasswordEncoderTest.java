@@ -0,0 +1,81 @@
+package com.example.zylo.auth.crypto;
+
+import com.example.zylo.common.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BoundedPasswordEncoderTest {
+
+    @Test
+    @DisplayName("Should hash and verify passwords on the hashing pool")
+    void shouldEncodeAndMatch() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(4), 1, 4, Duration.ofSeconds(5), registry);
+
+        // When
+        String hash = encoder.encode("password123");
+
+        // Then
+        assertThat(encoder.matches("password123", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        assertThat(registry.get("auth.password.hash").tag("operation", "matches").timer().count()).isEqualTo(2);
+        encoder.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should reject with 503 when the hashing queue is full")
+    void shouldRejectWhenQueueFull() throws Exception {
+        // Given: 1 thread busy, 1 task queued
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                blocking, 1, 1, Duration.ofSeconds(5), registry);
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "b"));
+        started.await();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("a", "b"));
+        while (registry.get("auth.password.hashing.queue").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // When/Then
+        assertThatThrownBy(() -> encoder.matches("a", "b"))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(registry.get("auth.password.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get()).isTrue();
+        assertThat(queued.get()).isTrue();
+        encoder.shutdown();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.zylo.auth.ratelimit;
+
+import com.example.zylo.common.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LoginRateLimiterTest {
+
+    @Mock
+    private RedisTemplate<String, String> jwtRedisTemplate;
+
+    private LoginRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        // IP: 10 burst, email: 2 burst
+        rateLimiter = new LoginRateLimiter(jwtRedisTemplate, new SimpleMeterRegistry(),
+                true, 10, 10, 2, 1, 1000);
+    }
+
+    @Test
+    @DisplayName("Should allow the login when the Redis buckets have tokens")
+    void shouldAllowWhenRedisBucketsHaveTokens() {
+        // Given
+        when(jwtRedisTemplate.execute(anyScript(), anyList(), any(), any(), any(), any(), any()))
+                .thenReturn(0L);
+
+        // When/Then
+        assertThatNoException().isThrownBy(() -> rateLimiter.checkLogin("10.0.0.1", "john@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should reject with Retry-After when the Redis bucket is empty")
+    void shouldRejectWhenRedisBucketEmpty() {
+        // Given
+        when(jwtRedisTemplate.execute(anyScript(), anyList(), any(), any(), any(), any(), any()))
+                .thenReturn(30_500L);
+
+        // When/Then
+        assertThatThrownBy(() -> rateLimiter.checkLogin("10.0.0.1", "john@example.com"))
+                .isInstanceOf(TooManyRequestsException.class)
+                .satisfies(e -> assertThat(((TooManyRequestsException) e).getRetryAfterSeconds()).isEqualTo(31));
+    }
+
+    @Test
+    @DisplayName("Should fall back to local buckets when Redis is unavailable")
+    void shouldFallBackToLocalBuckets() {
+        // Given
+        when(jwtRedisTemplate.execute(anyScript(), anyList(), any(), any(), any(), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        // When: email bucket holds 2, case variants share it
+        rateLimiter.checkLogin("10.0.0.1", "john@example.com");
+        rateLimiter.checkLogin("10.0.0.2", "John@Example.com");
+
+        // Then
+        assertThatThrownBy(() -> rateLimiter.checkLogin("10.0.0.3", "john@example.com"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThatNoException().isThrownBy(() -> rateLimiter.checkLogin("10.0.0.1", "jane@example.com"));
+    }
+
+    // Typed matcher, any(RedisScript.class) is an unchecked conversion
+    private static RedisScript<Long> anyScript() {
+        return any();
+    }
+}
@@ -7,6 +7,7 @@ import com.example.zylo.auth.dto.RegisterRequest;
 import com.example.zylo.common.dto.ApiResponse;
 import com.example.zylo.user.entity.User;
 import com.example.zylo.user.repository.UserRepository;
+import com.example.zylo.user.service.LastLoginTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,12 +20,14 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +45,9 @@ public class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private LastLoginTracker lastLoginTracker;
+
     @InjectMocks
     private AuthService authService;
 
@@ -105,9 +111,11 @@ public class AuthServiceTest {
     @DisplayName("Should Login User successfully")
     void shouldLoginUserSuccessfully() {
         // Given
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        AuthUserDetails principal = new AuthUserDetails(testUser);
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
         when(jwtService.generateAccessToken(any())).thenReturn("access.token.here");
-        when(jwtService.generateRefreshToken(any())).thenReturn("refresh.token.here");
+        when(jwtService.generateLoginRefreshToken(any())).thenReturn("refresh.token.here");
         when(jwtService.getJwtExpirationTime()).thenReturn(86400000L);
 
         // When
@@ -120,7 +128,9 @@ public class AuthServiceTest {
         assertThat(response.getUser().getEmail()).isEqualTo("john@example.com");
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(userRepository).save(any(User.class)); // last login at updated
+        verify(userRepository, never()).findByEmail(anyString()); // user comes from authentication
+        verify(lastLoginTracker).record(eq(1L), any(LocalDateTime.class)); // last login at recorded (batched write)
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
@@ -147,8 +157,7 @@ public class AuthServiceTest {
 
         when(jwtService.extractTokenType(anyString())).thenReturn("REFRESH");
         when(jwtService.extractEmail(anyString())).thenReturn("john@example.com");
-        when(jwtService.extractUserId(anyString())).thenReturn(1L);
-        when(jwtService.isRefreshTokenValid(anyString(), anyLong())).thenReturn(true);
+        when(jwtService.isRefreshTokenValid(anyString(), any(User.class))).thenReturn(true);
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
         when(jwtService.generateAccessToken(any())).thenReturn("new.access.token");
         when(jwtService.getJwtExpirationTime()).thenReturn(86400000L);
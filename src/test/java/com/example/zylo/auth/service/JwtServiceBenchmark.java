@@ -0,0 +1,110 @@
+package com.example.zylo.auth.service;
+
+import com.example.zylo.auth.cache.TokenBlacklistFilter;
+import com.example.zylo.auth.cache.VerifiedTokenCache;
+import com.example.zylo.auth.dto.VerifiedToken;
+import com.example.zylo.user.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Per-request JWT cost of the auth filter
+// legacyFilterPath: what JwtAuthFilter used to do (4 parses, key + parser rebuilt each time)
+// parseOncePath: cached key + parser, one parse per request
+// verifiedCacheHitPath: token already verified, claims come from VerifiedTokenCache
+//
+// Run main() from the IDE, or after mvn test-compile:
+//   java -cp <test classpath> org.openjdk.jmh.Main JwtServiceBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setup() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        jwtService = new JwtService(
+                null,
+                new VerifiedTokenCache(1000, registry),
+                new TokenBlacklistFilter(null, null, registry, 1000, 0.01),
+                null,
+                null,
+                registry
+        );
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86400000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 2592000000L);
+        jwtService.init();
+
+        User user = User.builder()
+                .id(1L)
+                .email("bench@example.com")
+                .name("Bench User")
+                .role(User.Role.CUSTOMER)
+                .build();
+        token = jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public void legacyFilterPath(Blackhole bh) {
+        // extractEmail, extractTokenType, then isTokenValid (extractEmail + isTokenExpired)
+        bh.consume(legacyParse().getSubject());
+        bh.consume(legacyParse().get("type", String.class));
+        bh.consume(legacyParse().getSubject());
+        bh.consume(legacyParse().getExpiration().before(new Date()));
+    }
+
+    @Benchmark
+    public void parseOncePath(Blackhole bh) {
+        Claims claims = jwtService.parseClaims(token);
+        bh.consume(claims.getSubject());
+        bh.consume(claims.get("type", String.class));
+        bh.consume(claims.getExpiration().before(new Date()));
+    }
+
+    // Same token seen again: digest lookup in the verified token cache
+    @Benchmark
+    public void verifiedCacheHitPath(Blackhole bh) {
+        VerifiedToken verified = jwtService.verifyToken(token);
+        bh.consume(verified.email());
+        bh.consume(verified.isAccessToken());
+        bh.consume(verified.isExpired());
+    }
+
+    private Claims legacyParse() {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtServiceBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
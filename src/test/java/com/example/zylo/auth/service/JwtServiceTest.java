@@ -1,6 +1,11 @@
 package com.example.zylo.auth.service;
 
+import com.example.zylo.auth.cache.TokenBlacklistFilter;
+import com.example.zylo.auth.cache.UserSessionCache;
+import com.example.zylo.auth.cache.VerifiedTokenCache;
 import com.example.zylo.user.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.MalformedJwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -8,11 +13,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -29,6 +37,23 @@ public class JwtServiceTest {
     @Mock
     private ValueOperations<String, String> valueOperations;
 
+    @Spy
+    private VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(100, new SimpleMeterRegistry());
+
+    // Not rebuilt from Redis in unit tests, so every blacklist check goes to (mocked) Redis
+    @Spy
+    private TokenBlacklistFilter blacklistFilter =
+            new TokenBlacklistFilter(null, null, new SimpleMeterRegistry(), 1000, 0.01);
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private UserSessionCache userSessionCache;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private JwtService jwtService;
 
@@ -42,6 +67,9 @@ public class JwtServiceTest {
         ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86400000L);
         ReflectionTestUtils.setField(jwtService, "refreshExpiration", 2592000000L);
 
+        // Builds the signing key and parser (normally done by @PostConstruct)
+        jwtService.init();
+
         // Mock Redis Operations
         // lenient().when(jwtRedisTemplate.opsForValue()).thenReturn(valueOperations);
 
@@ -127,7 +155,8 @@ public class JwtServiceTest {
     void shouldRejectBlacklistedToken() {
         // Given
         String token = jwtService.generateAccessToken(testUser);
-        when(jwtRedisTemplate.hasKey("blacklist:" + token)).thenReturn(true);
+        String jti = jwtService.extractClaim(token, Claims::getId);
+        when(jwtRedisTemplate.hasKey("blacklist:" + jti)).thenReturn(true);
 
         // When
         boolean isValid = jwtService.isTokenValid(token, "test@example.com");
@@ -136,6 +165,37 @@ public class JwtServiceTest {
         assertThat(isValid).isFalse();
     }
 
+    @Test
+    @DisplayName("Should reject token issued before the user's revocation epoch")
+    void shouldRejectRevokedToken() {
+        // Given
+        String token = jwtService.generateAccessToken(testUser);
+        when(tokenRevocationService.isRevoked(any())).thenReturn(true);
+
+        // When
+        boolean isValid = jwtService.isTokenValid(token, "test@example.com");
+
+        // Then
+        assertThat(isValid).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject refresh token revoked through the user's role")
+    void shouldRejectRefreshTokenRevokedByRole() {
+        // Given
+        when(jwtRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        String refreshToken = jwtService.generateRefreshToken(testUser);
+        when(valueOperations.get("refresh_token:1")).thenReturn(refreshToken);
+        when(tokenRevocationService.isRevoked(any(), eq("CUSTOMER"))).thenReturn(true);
+
+        // When
+        boolean isValid = jwtService.isRefreshTokenValid(refreshToken, testUser);
+
+        // Then
+        assertThat(jwtService.extractRole(refreshToken)).isEqualTo("CUSTOMER");
+        assertThat(isValid).isFalse();
+    }
+
     @Test
     @DisplayName("Should blacklist token on logout")
     void shouldBlacklistTokenOnLogout() {
@@ -145,18 +205,76 @@ public class JwtServiceTest {
         // Given
         String token = jwtService.generateAccessToken(testUser);
 
+        String jti = jwtService.extractClaim(token, Claims::getId);
+
         // When
         jwtService.blacklistToken(token);
 
-        // Then
+        // Then (keyed by jti, not by the full token)
         verify(valueOperations).set(
-                eq("blacklist:" + token),
+                eq("blacklist:" + jti),
                 eq("test@example.com"),
                 anyLong(),
                 eq(TimeUnit.MILLISECONDS)
         );
     }
 
+    @Test
+    @DisplayName("Should cache verified token until it is blacklisted")
+    void shouldCacheVerifiedTokenUntilBlacklisted() {
+        when(jwtRedisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        // Given
+        String token = jwtService.generateAccessToken(testUser);
+
+        // When
+        jwtService.verifyToken(token);
+        jwtService.verifyToken(token);
+
+        // Then
+        assertThat(verifiedTokenCache.size()).isEqualTo(1);
+        assertThat(jwtService.verifyToken(token).email()).isEqualTo("test@example.com");
+
+        // Logout drops the cached entry
+        jwtService.blacklistToken(token);
+        verify(verifiedTokenCache).invalidate(token);
+    }
+
+    @Test
+    @DisplayName("Should revoke login session in a single Redis pipeline")
+    void shouldRevokeLoginSessionInSinglePipeline() {
+        // Given
+        String token = jwtService.generateAccessToken(testUser);
+        String jti = jwtService.extractClaim(token, Claims::getId);
+
+        // When
+        String email = jwtService.revokeLoginSession(token, 1L);
+
+        // Then (one round trip, local state updated without further Redis calls)
+        assertThat(email).isEqualTo("test@example.com");
+        verify(jwtRedisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(jwtRedisTemplate, never()).opsForValue();
+        verify(jwtRedisTemplate, never()).delete(anyString());
+        verify(blacklistFilter).add(jti);
+        verify(verifiedTokenCache).invalidate(token);
+        verify(userSessionCache).invalidateLocal("test@example.com");
+    }
+
+    @Test
+    @DisplayName("Should store refresh token and warm session cache in a single Redis pipeline")
+    void shouldGenerateLoginRefreshTokenInSinglePipeline() {
+        // Given
+        when(userSessionCache.redisTtl()).thenReturn(Duration.ofMinutes(30));
+
+        // When
+        String refreshToken = jwtService.generateLoginRefreshToken(testUser);
+
+        // Then
+        assertThat(jwtService.extractTokenType(refreshToken)).isEqualTo("REFRESH");
+        verify(jwtRedisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(userSessionCache).putLocal(eq("test@example.com"), any());
+    }
+
     @Test
     @DisplayName("Should throw exception for malformed token")
     void shouldThrowExceptionForMalformedToken() {
@@ -0,0 +1,121 @@
+package com.example.zylo.auth.service;
+
+import com.example.zylo.auth.dto.VerifiedToken;
+import com.example.zylo.user.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> jwtRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new TokenRevocationService(
+                jwtRedisTemplate, null, new SimpleMeterRegistry(), Duration.ofSeconds(60), 1000);
+        ReflectionTestUtils.setField(revocationService, "refreshExpiration", 2592000000L);
+    }
+
+    @Test
+    @DisplayName("Should revoke tokens issued before the role epoch only for that role")
+    void shouldRevokeByRoleEpoch() {
+        // Given
+        Instant issuedAt = Instant.now().minusSeconds(120);
+        long roleEpoch = issuedAt.getEpochSecond() + 60;
+        when(jwtRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(invocation ->
+                invocation.getArgument(0).equals("auth:epoch:role:CUSTOMER") ? String.valueOf(roleEpoch) : null);
+
+        // When
+        boolean customerRevoked = revocationService.isRevoked(token(1L, "CUSTOMER", issuedAt));
+        boolean adminRevoked = revocationService.isRevoked(token(2L, "ADMIN", issuedAt));
+
+        // Then
+        assertThat(customerRevoked).isTrue();
+        assertThat(adminRevoked).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject refresh tokens after revokeRole, also those without a role claim")
+    void shouldRejectRefreshTokensAfterRoleRevocation() {
+        // Given
+        Instant issuedAt = Instant.now().minusSeconds(120);
+        revocationService.revokeRole(User.Role.CUSTOMER, null);
+        long roleEpoch = Instant.now().getEpochSecond();
+        when(jwtRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(invocation ->
+                invocation.getArgument(0).equals("auth:epoch:role:CUSTOMER") ? String.valueOf(roleEpoch) : null);
+
+        // When
+        boolean withRoleClaim = revocationService.isRevoked(refreshToken(1L, "CUSTOMER", issuedAt), "CUSTOMER");
+        boolean withoutRoleClaim = revocationService.isRevoked(refreshToken(1L, null, issuedAt), "CUSTOMER");
+        boolean otherRole = revocationService.isRevoked(refreshToken(2L, null, issuedAt), "ADMIN");
+
+        // Then
+        verify(jwtRedisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(List.of("auth:epoch:role:CUSTOMER")),
+                any(), any());
+        assertThat(withRoleClaim).isTrue();
+        assertThat(withoutRoleClaim).isTrue();
+        assertThat(otherRole).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should revoke many users in batched script calls with one invalidation message")
+    void shouldRevokeUsersInBatches() {
+        // Given
+        List<Long> userIds = LongStream.rangeClosed(1, 2500).boxed().toList();
+
+        // When
+        revocationService.revokeUsers(userIds, null);
+
+        // Then (1000 + 1000 + 500 keys)
+        verify(jwtRedisTemplate, times(3)).execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(), any(), any());
+        verify(jwtRedisTemplate, times(1)).convertAndSend(TokenRevocationService.CHANNEL, "*");
+        verify(jwtRedisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    @DisplayName("Should reject a revocation cut-off in the future")
+    void shouldRejectFutureCutOff() {
+        // When/Then
+        assertThatThrownBy(() -> revocationService.revokeRole(User.Role.CUSTOMER, Instant.now().plusSeconds(3600)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static VerifiedToken refreshToken(Long userId, String role, Instant issuedAt) {
+        return new VerifiedToken("jti-" + userId, userId, "user" + userId + "@example.com", role, "REFRESH",
+                issuedAt, issuedAt.plusSeconds(3600));
+    }
+
+    private static VerifiedToken token(Long userId, String role, Instant issuedAt) {
+        return new VerifiedToken("jti-" + userId, userId, "user" + userId + "@example.com", role, "ACCESS",
+                issuedAt, issuedAt.plusSeconds(3600));
+    }
+}
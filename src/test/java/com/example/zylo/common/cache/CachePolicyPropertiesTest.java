@@ -0,0 +1,64 @@
+package com.example.zylo.common.cache;
+
+import com.example.zylo.common.cache.codec.CacheCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CachePolicyPropertiesTest {
+
+    @Test
+    @DisplayName("Should take unset cache settings from the defaults")
+    void shouldMergeCachePolicyWithDefaults() {
+        // Given
+        CachePolicyProperties properties = bind(Map.of(
+                "cache.policy.defaults.ttl", "30m",
+                "cache.policy.defaults.ttl-jitter", "0.1",
+                "cache.policy.caches.categories.ttl", "12h",
+                "cache.policy.caches.products.max-entries", "20000",
+                "cache.policy.caches.products.codec", "smile-lz4",
+                "cache.policy.caches.products.key-prefix", "zylo:"
+        ));
+
+        // When
+        CachePolicy categories = properties.resolve("categories");
+        CachePolicy products = properties.resolve("products");
+        CachePolicy other = properties.resolve("other");
+
+        // Then
+        assertThat(categories.ttl()).isEqualTo(Duration.ofHours(12));
+        assertThat(categories.ttlJitter()).isEqualTo(0.1);
+        assertThat(categories.bounded()).isFalse();
+        assertThat(products.ttl()).isEqualTo(Duration.ofMinutes(30));
+        assertThat(products.maxEntries()).isEqualTo(20000);
+        assertThat(products.codec()).isEqualTo(CacheCodec.SMILE_LZ4);
+        assertThat(products.keyPrefix()).isEqualTo("zylo:");
+        assertThat(other.codec()).isEqualTo(CacheCodec.JSON);
+        assertThat(other.keyPrefix()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should spread TTLs over the jitter range, never below the TTL")
+    void shouldJitterTtl() {
+        // Given
+        CachePolicy policy = new CachePolicy(Duration.ofMinutes(10), 0.1, 0, null, CacheCodec.JSON);
+
+        // When / Then
+        for (int i = 0; i < 1000; i++) {
+            assertThat(policy.jitteredTtl()).isBetween(Duration.ofMinutes(10), Duration.ofMinutes(11));
+        }
+        assertThat(policy.maxTtl()).isEqualTo(Duration.ofMinutes(11));
+    }
+
+    private static CachePolicyProperties bind(Map<String, String> properties) {
+        return new Binder(new MapConfigurationPropertySource(properties))
+                .bind("cache.policy", CachePolicyProperties.class)
+                .get();
+    }
+}
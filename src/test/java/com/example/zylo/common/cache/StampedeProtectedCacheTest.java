@@ -0,0 +1,180 @@
+package com.example.zylo.common.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StampedeProtectedCacheTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private RedisScript<Long> releaseLockScript;
+
+    private final ConcurrentMapCache delegate = new ConcurrentMapCache("product");
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        // This node always gets the cross-node lock
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Should load a missing key once for concurrent requests")
+    void shouldCoalesceConcurrentMisses() throws Exception {
+        // Given
+        StampedeProtectedCache cache = cache(Duration.ofMinutes(25), Runnable::run);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+
+        // When
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return cache.get(1L, () -> {
+                    loads.incrementAndGet();
+                    Thread.sleep(200);
+                    return "product-1";
+                });
+            }));
+        }
+        start.countDown();
+
+        // Then
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("product-1");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should serve the stale value and refresh it in the background")
+    void shouldServeStaleWhileRevalidating() {
+        // Given: soft TTL already passed, refresh runs inline
+        StampedeProtectedCache cache = cache(Duration.ZERO, Runnable::run);
+        cache.put(1L, "old");
+
+        // When
+        String served = cache.get(1L, () -> "new");
+
+        // Then
+        assertThat(served).isEqualTo("old");
+        assertThat(cache.get(1L, String.class)).isEqualTo("new");
+    }
+
+    @Test
+    @DisplayName("Should load a miss itself while a refresh that lost the lock is running")
+    void shouldNotJoinRefreshThatLostTheLock() throws Exception {
+        // Given: the refresh finds another node holding the lock (and is held there), misses get the lock
+        CountDownLatch refreshLocking = new CountDownLatch(1);
+        CountDownLatch releaseRefresh = new CountDownLatch(1);
+        AtomicInteger lockCalls = new AtomicInteger();
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(invocation -> {
+            if (lockCalls.getAndIncrement() > 0) {
+                return true;
+            }
+            refreshLocking.countDown();
+            releaseRefresh.await(5, TimeUnit.SECONDS);
+            return false;
+        });
+        ExecutorService refreshPool = Executors.newSingleThreadExecutor();
+        StampedeProtectedCache cache = cache(Duration.ZERO, refreshPool);
+        cache.put("all", "old");
+        assertThat(cache.get("all", () -> "new")).isEqualTo("old");
+        assertThat(refreshLocking.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When: evicted (@CacheEvict) while the refresh is running
+        cache.evict("all");
+        String loaded = cache.get("all", () -> "fresh");
+        releaseRefresh.countDown();
+
+        // Then
+        assertThat(loaded).isEqualTo("fresh");
+        refreshPool.shutdown();
+        assertThat(refreshPool.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should read plain values written before the decorator")
+    void shouldReadLegacyEntries() {
+        // Given
+        delegate.put(1L, "legacy");
+        StampedeProtectedCache cache = cache(Duration.ofMinutes(25), Runnable::run);
+
+        // When/Then
+        assertThat(cache.get(1L, () -> "loaded")).isEqualTo("legacy");
+    }
+
+    @Test
+    @DisplayName("Should count hits, misses, puts and removals per cache")
+    void shouldRecordCacheMeters() {
+        // Given
+        StampedeProtectedCache cache = cache(Duration.ofMinutes(25), Runnable::run);
+
+        // When
+        cache.get(1L, () -> "loaded");
+        cache.get(1L, () -> "loaded");
+        cache.get(2L, String.class);
+        cache.evict(1L);
+
+        // Then
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "product").tag("result", "hit").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "product").tag("result", "miss").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("cache.puts").tag("cache", "product").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.removals").tag("cache", "product").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should report writes, evictions and clears to the size limit")
+    void shouldKeepSizeIndexInSyncWithRemovals() {
+        // Given
+        CacheSizeLimiter sizeLimiter = mock(CacheSizeLimiter.class);
+        StampedeProtectedCache cache = new StampedeProtectedCache(delegate, redisTemplate, releaseLockScript,
+                Runnable::run, Duration.ofMinutes(25), Duration.ofSeconds(5), 1.0, sizeLimiter, meterRegistry);
+
+        // When
+        cache.put(1L, "one");
+        cache.evict(1L);
+        cache.clear();
+
+        // Then
+        verify(sizeLimiter).track(1L);
+        verify(sizeLimiter).untrack(1L);
+        verify(sizeLimiter).clear();
+    }
+
+    private StampedeProtectedCache cache(Duration softTtl, Executor executor) {
+        return new StampedeProtectedCache(delegate, redisTemplate, releaseLockScript, executor,
+                softTtl, Duration.ofSeconds(5), 1.0, null, meterRegistry);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.zylo.common.cache.codec;
+
+import com.example.zylo.common.cache.CacheEnvelope;
+import com.example.zylo.product.cache.CachedPage;
+import com.example.zylo.product.dto.categoryDtos.CategoryResponse;
+import com.example.zylo.product.dto.productDtos.ProductCardResponse;
+import com.example.zylo.product.dto.productDtos.ProductResponse;
+import com.example.zylo.product.entity.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cache value codecs on what the caches hold (values wrapped in a CacheEnvelope by StampedeProtectedCache)
+// listing: a page of 20 product cards ("products" cache), categories: the category list ("categories" cache)
+// encode / decode: time per value, the encoded size of each codec is printed at setup
+// redis-json: RedisSerializer.json() as used before (decoding as Object parses the value twice)
+//
+// Run main() from the IDE, or after mvn test-compile:
+//   java -cp <test classpath> org.openjdk.jmh.Main CacheCodecBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    @Param({"redis-json", "json", "smile", "smile-lz4"})
+    private String codec;
+
+    @Param({"listing", "categories"})
+    private String payload;
+
+    private RedisSerializer<Object> serializer;
+    private CacheEnvelope value;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        serializer = "redis-json".equals(codec)
+                ? RedisSerializer.json()
+                : new CacheValueSerializer(CacheCodec.from(codec), 1024,
+                        CacheValueSerializer.jsonSerializer(), CacheValueSerializer.smileSerializer());
+        value = new CacheEnvelope("listing".equals(payload) ? new CachedPage<>(cards(), 41) : categories(),
+                1_700_000_000_000L, 12);
+        encoded = serializer.serialize(value);
+        System.out.printf("%n%s / %s: %d bytes%n", codec, payload, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+
+    private static List<ProductCardResponse> cards() {
+        List<ProductCardResponse> cards = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            cards.add(ProductCardResponse.builder()
+                    .id(1000L + i)
+                    .sku("SKU-" + (1000 + i))
+                    .name("Smartphone model " + i + " 128GB")
+                    .price(new BigDecimal("499.99").add(BigDecimal.valueOf(i)))
+                    .stockStatus(i % 7 == 0 ? Product.StockStatus.LOW_STOCK : Product.StockStatus.IN_STOCK)
+                    .primaryImageUrl("https://cdn.example.com/products/" + (1000 + i) + "/main.jpg")
+                    .averageRating(new BigDecimal("4.50"))
+                    .totalReviews(120 + i)
+                    .category(new ProductResponse.CategorySummary(3L, "Smartphones", "smartphones"))
+                    .createdAt(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(i))
+                    .build());
+        }
+        return cards;
+    }
+
+    private static List<CategoryResponse> categories() {
+        List<CategoryResponse> categories = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            boolean root = i < 6;
+            categories.add(CategoryResponse.builder()
+                    .id(1L + i)
+                    .name("Category " + i)
+                    .slug("category-" + i)
+                    .description("Phones, tablets and accessories from all major brands, new and refurbished.")
+                    .isActive(true)
+                    .displayOrder(i)
+                    .parentId(root ? null : 1L + i % 6)
+                    .parentName(root ? null : "Category " + i % 6)
+                    .createdAt(LocalDateTime.of(2024, 1, 1, 12, 0).plusDays(i))
+                    .build());
+        }
+        return categories;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CacheCodecBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
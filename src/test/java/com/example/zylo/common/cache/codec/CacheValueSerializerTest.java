@@ -0,0 +1,92 @@
+package com.example.zylo.common.cache.codec;
+
+import com.example.zylo.common.cache.CacheEnvelope;
+import com.example.zylo.product.cache.CachedPage;
+import com.example.zylo.product.dto.productDtos.ProductCardResponse;
+import com.example.zylo.product.dto.productDtos.ProductResponse;
+import com.example.zylo.product.entity.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJacksonJsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CacheValueSerializerTest {
+
+    private static final GenericJacksonJsonRedisSerializer JSON = CacheValueSerializer.jsonSerializer();
+    private static final GenericJacksonJsonRedisSerializer SMILE = CacheValueSerializer.smileSerializer();
+
+    @Test
+    @DisplayName("Should round trip a cached listing page in fewer bytes than JSON")
+    void shouldRoundTripCompactly() {
+        // Given
+        CacheEnvelope envelope = new CacheEnvelope(new CachedPage<>(cards(20), 41), 1_700_000_000_000L, 12);
+        CacheValueSerializer json = serializer(CacheCodec.JSON);
+        CacheValueSerializer compact = serializer(CacheCodec.SMILE_LZ4);
+
+        // When
+        byte[] jsonBytes = json.serialize(envelope);
+        byte[] compactBytes = compact.serialize(envelope);
+
+        // Then
+        assertThat(compactBytes.length).isLessThan(jsonBytes.length / 2);
+        assertThat(compact.deserialize(compactBytes)).isEqualTo(envelope);
+    }
+
+    @Test
+    @DisplayName("Should still read entries written with another codec")
+    void shouldReadEveryCodec() {
+        // Given
+        CacheEnvelope envelope = new CacheEnvelope(new CachedPage<>(cards(20), 41), 1L, 2L);
+        CacheValueSerializer reader = serializer(CacheCodec.SMILE);
+
+        // When / Then
+        for (CacheCodec codec : CacheCodec.values()) {
+            assertThat(reader.deserialize(serializer(codec).serialize(envelope))).isEqualTo(envelope);
+        }
+        assertThat(reader.deserialize(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should leave values under the threshold uncompressed")
+    void shouldNotCompressSmallValues() {
+        // Given
+        CacheValueSerializer compact = serializer(CacheCodec.SMILE_LZ4);
+        List<ProductCardResponse> one = cards(1);
+
+        // When
+        byte[] bytes = compact.serialize(one);
+
+        // Then
+        assertThat(bytes).isEqualTo(SMILE.serialize(one));
+        assertThat(compact.deserialize(bytes)).isEqualTo(one);
+    }
+
+    private static CacheValueSerializer serializer(CacheCodec codec) {
+        return new CacheValueSerializer(codec, 1024, JSON, SMILE);
+    }
+
+    static List<ProductCardResponse> cards(int count) {
+        List<ProductCardResponse> cards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            cards.add(ProductCardResponse.builder()
+                    .id((long) i)
+                    .sku("SKU-" + i)
+                    .name("Smartphone model " + i + " 128GB")
+                    .price(new BigDecimal("499.99"))
+                    .stockStatus(Product.StockStatus.IN_STOCK)
+                    .primaryImageUrl("https://cdn.example.com/products/" + i + "/main.jpg")
+                    .averageRating(new BigDecimal("4.50"))
+                    .totalReviews(120 + i)
+                    .category(new ProductResponse.CategorySummary(3L, "Smartphones", "smartphones"))
+                    .createdAt(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(i))
+                    .build());
+        }
+        return cards;
+    }
+}
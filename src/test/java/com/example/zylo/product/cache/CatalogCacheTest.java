@@ -0,0 +1,105 @@
+package com.example.zylo.product.cache;
+
+import com.example.zylo.product.dto.productDtos.ProductCardResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogCacheTest {
+
+    @Mock
+    private CatalogGenerations generations;
+
+    private CatalogCache catalogCache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        catalogCache = new CatalogCache(new ConcurrentMapCacheManager(), generations);
+    }
+
+    @Test
+    @DisplayName("Should cache listings per sort, not only per page and size")
+    void shouldKeySortSeparately() {
+        // Given
+        when(generations.all()).thenReturn(0L);
+        Pageable newest = PageRequest.of(0, 20, Sort.by("createdAt").descending());
+        Pageable cheapest = PageRequest.of(0, 20, Sort.by("basePrice").ascending());
+
+        // When
+        Page<ProductCardResponse> first = catalogCache.allProducts(newest, () -> load("newest", newest));
+        Page<ProductCardResponse> second = catalogCache.allProducts(cheapest, () -> load("cheapest", cheapest));
+        Page<ProductCardResponse> again = catalogCache.allProducts(newest, () -> load("newest", newest));
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(first.getContent().get(0).getName()).isEqualTo("newest");
+        assertThat(second.getContent().get(0).getName()).isEqualTo("cheapest");
+        assertThat(again.getContent().get(0).getName()).isEqualTo("newest");
+        assertThat(again.getTotalElements()).isEqualTo(41);
+        assertThat(again.getPageable()).isEqualTo(newest);
+    }
+
+    @Test
+    @DisplayName("Should reload only the listings whose generation changed")
+    void shouldReloadAfterGenerationBump() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 20, Sort.by("createdAt").descending());
+        when(generations.category(1L)).thenReturn(0L, 1L, 1L);
+        when(generations.category(2L)).thenReturn(0L, 0L);
+
+        // When: category 1 changes between the two reads, category 2 doesn't
+        catalogCache.categoryProducts(1L, pageable, () -> load("c1", pageable));
+        catalogCache.categoryProducts(2L, pageable, () -> load("c2", pageable));
+        catalogCache.categoryProducts(1L, pageable, () -> load("c1", pageable));
+        catalogCache.categoryProducts(2L, pageable, () -> load("c2", pageable));
+
+        // Then
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should bump generations of the old and new category on invalidation")
+    void shouldBumpAffectedCategories() {
+        // When (no transaction active: runs immediately)
+        catalogCache.invalidateProduct(List.of(1L, 2L));
+
+        // Then
+        verify(generations).bump(List.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Should invalidate an uncategorized product without failing")
+    void shouldInvalidateUncategorizedProduct() {
+        // When: category deleted (category_id set to null), then the product is updated / deleted
+        catalogCache.invalidateProduct(Arrays.asList(null, 2L));
+        catalogCache.invalidateProduct(Collections.singletonList(null));
+
+        // Then: only the "all" scope (added by bump) for the missing category
+        verify(generations).bump(List.of(2L));
+        verify(generations).bump(List.of());
+    }
+
+    private Page<ProductCardResponse> load(String name, Pageable pageable) {
+        loads.incrementAndGet();
+        return new PageImpl<>(List.of(ProductCardResponse.builder().id(1L).name(name).build()), pageable, 41);
+    }
+}
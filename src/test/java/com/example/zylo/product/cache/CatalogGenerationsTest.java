@@ -0,0 +1,72 @@
+package com.example.zylo.product.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogGenerationsTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private CatalogGenerations generations;
+
+    @BeforeEach
+    void setUp() {
+        generations = new CatalogGenerations(redisTemplate, null, Duration.ofSeconds(30));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    @DisplayName("Should start a missing counter at a random value, not at 0")
+    @SuppressWarnings("unchecked")
+    void shouldStartMissingCounterAtRandomValue() {
+        // Given: counter lost (flush / failover without persistence)
+        when(valueOperations.get("catalog:gen:all")).thenReturn(null);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("catalog:gen:all")), any()))
+                .thenAnswer(invocation -> Long.valueOf((String) invocation.getArgument(2)));
+
+        // When
+        long generation = generations.all();
+
+        // Then
+        ArgumentCaptor<Object> start = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("catalog:gen:all")), start.capture());
+        assertThat(generation).isEqualTo(Long.parseLong((String) start.getValue()));
+        assertThat(generation).isGreaterThan(0);
+    }
+
+    @Test
+    @DisplayName("Should read an existing counter with a plain GET")
+    @SuppressWarnings("unchecked")
+    void shouldReadExistingCounter() {
+        // Given
+        when(valueOperations.get("catalog:gen:category:3")).thenReturn("42");
+
+        // When
+        long generation = generations.category(3L);
+
+        // Then
+        assertThat(generation).isEqualTo(42);
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any());
+    }
+}
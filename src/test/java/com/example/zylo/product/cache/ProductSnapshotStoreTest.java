@@ -0,0 +1,124 @@
+package com.example.zylo.product.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductSnapshotStoreTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private ProductSnapshotStore store;
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        store = new ProductSnapshotStore(redisTemplate, Duration.ofHours(6));
+    }
+
+    @Test
+    @DisplayName("Should serve the stored bytes without rendering")
+    @SuppressWarnings("unchecked")
+    void shouldServeStoredSnapshot() {
+        // Given
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(Arrays.asList(
+                bytes("1700000000000"), bytes("\"7-1700000000000\""), bytes("{\"success\":true}")));
+
+        // When
+        ProductSnapshot snapshot = store.get(7L, this::render);
+
+        // Then
+        assertThat(renders.get()).isZero();
+        assertThat(snapshot.version()).isEqualTo(1700000000000L);
+        assertThat(snapshot.etag()).isEqualTo("\"7-1700000000000\"");
+        assertThat(new String(snapshot.body(), StandardCharsets.UTF_8)).isEqualTo("{\"success\":true}");
+    }
+
+    @Test
+    @DisplayName("Should render a missing snapshot and store it")
+    @SuppressWarnings("unchecked")
+    void shouldRenderAndStoreOnMiss() {
+        // Given
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(Arrays.asList(null, null, null));
+
+        // When
+        ProductSnapshot snapshot = store.get(7L, this::render);
+
+        // Then
+        assertThat(renders.get()).isEqualTo(1);
+        assertThat(snapshot.etag()).startsWith("\"7-");
+        verify(redisTemplate).execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                eq(List.of("product:snapshot:7")), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should read only the version field for conditional requests")
+    @SuppressWarnings("unchecked")
+    void shouldReadVersionWithoutBody() {
+        // Given
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get("product:snapshot:7", "version")).thenReturn("1700000000000");
+
+        // When
+        Long version = store.version(7L);
+
+        // Then
+        assertThat(version).isEqualTo(1700000000000L);
+        assertThat(ProductSnapshot.etag(7L, version)).isEqualTo("\"7-1700000000000\"");
+        verify(redisTemplate, never()).execute(any(RedisCallback.class));
+    }
+
+    @Test
+    @DisplayName("Should still answer when Redis is down")
+    @SuppressWarnings("unchecked")
+    void shouldRenderWhenRedisFails() {
+        // Given
+        when(redisTemplate.execute(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                any(List.class), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        // When
+        ProductSnapshot snapshot = store.get(7L, this::render);
+
+        // Then
+        assertThat(renders.get()).isEqualTo(1);
+        assertThat(snapshot.body()).isNotEmpty();
+    }
+
+    private ProductSnapshot render() {
+        renders.incrementAndGet();
+        return ProductSnapshot.of(7L, LocalDateTime.of(2024, 1, 1, 12, 0), bytes("{\"success\":true}"));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.zylo.product.dto.productDtos;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ProductCursorTest {
+
+    @Test
+    @DisplayName("Should round trip the last row's sort value and id through the opaque cursor")
+    void shouldRoundTrip() {
+        // Given
+        ProductCardResponse last = ProductCardResponse.builder()
+                .id(1042L)
+                .price(new BigDecimal("1000.00"))
+                .createdAt(LocalDateTime.of(2026, 1, 5, 10, 15, 30))
+                .build();
+
+        // When
+        String newest = ProductCursor.after(ProductCursor.Order.NEWEST, last).encode();
+        String cheapest = ProductCursor.after(ProductCursor.Order.PRICE_ASC, last).encode();
+        ProductCursor decoded = ProductCursor.decode(cheapest, ProductCursor.Order.PRICE_ASC);
+
+        // Then
+        assertThat(newest).doesNotContain("|", "=", "+", "/");
+        assertThat(ProductCursor.decode(newest, ProductCursor.Order.NEWEST).value())
+                .isEqualTo(LocalDateTime.of(2026, 1, 5, 10, 15, 30));
+        assertThat(decoded.value()).isEqualTo(new BigDecimal("1000.00"));
+        assertThat(decoded.id()).isEqualTo(1042L);
+    }
+
+    @Test
+    @DisplayName("Should reject tampered cursors and cursors of another sort")
+    void shouldRejectInvalidCursor() {
+        // Given
+        ProductCardResponse last = ProductCardResponse.builder().id(1L).price(BigDecimal.TEN).build();
+        String priceCursor = ProductCursor.after(ProductCursor.Order.PRICE_DESC, last).encode();
+
+        // When / Then
+        assertThatThrownBy(() -> ProductCursor.decode(priceCursor, ProductCursor.Order.PRICE_ASC))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProductCursor.decode("not-a-cursor", ProductCursor.Order.NEWEST))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
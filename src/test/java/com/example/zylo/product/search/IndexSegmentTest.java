@@ -0,0 +1,142 @@
+package com.example.zylo.product.search;
+
+import com.example.zylo.product.entity.Category;
+import com.example.zylo.product.entity.Product;
+import com.example.zylo.product.entity.ProductSpecs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IndexSegmentTest {
+
+    private IndexSegment segment;
+
+    @BeforeEach
+    void setUp() {
+        segment = new IndexSegment();
+        segment.add(product(1L, "APL-IP15-128", "Apple iPhone 15", "Smartphone with A16 chip", 1L, "799.00", "Apple"));
+        segment.add(product(2L, "SAM-S24-256", "Samsung Galaxy S24", "Android phone, iPhone alternative", 1L, "899.00", "Samsung"));
+        segment.add(product(3L, "APL-MBA-M3", "MacBook Air M3", "Laptop", 2L, "1099.00", "Apple"));
+        segment.seal();
+    }
+
+    @Test
+    @DisplayName("Should rank name matches above description matches")
+    void shouldRankByFieldWeight() {
+        // When
+        SearchHits hits = segment.search(criteria("iphone", null, null, null), 0, 10);
+
+        // Then
+        assertThat(hits.productIds()).containsExactly(1L, 2L);
+        assertThat(hits.total()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should match every token, the last one as a prefix")
+    void shouldMatchAllTokensWithPrefix() {
+        // When
+        SearchHits prefix = segment.search(criteria("apple mac", null, null, null), 0, 10);
+        SearchHits sku = segment.search(criteria("APL-IP15-128", null, null, null), 0, 10);
+
+        // Then
+        assertThat(prefix.productIds()).containsExactly(3L);
+        assertThat(sku.productIds()).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Should apply category and price filters from the index")
+    void shouldFilterByCategoryAndPrice() {
+        // When
+        SearchHits byCategory = segment.search(criteria("apple", 2L, null, null), 0, 10);
+        SearchHits byPrice = segment.search(criteria("apple", null, null, new BigDecimal("900")), 0, 10);
+
+        // Then
+        assertThat(byCategory.productIds()).containsExactly(3L);
+        assertThat(byPrice.productIds()).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Should drop removed products and re-index updated ones")
+    void shouldApplyUpdatesAndRemovals() {
+        // When
+        segment.remove(1L);
+        segment.add(product(3L, "APL-MBA-M3", "MacBook Air M3 iPhone edition", "Laptop", 2L, "1099.00", "Apple"));
+        SearchHits hits = segment.search(criteria("iphone", null, null, null), 0, 10);
+
+        // Then
+        assertThat(hits.productIds()).containsExactly(3L, 2L);
+        assertThat(segment.deadCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should page a category's price range from the sorted price index")
+    void shouldBrowseByPrice() {
+        // Given
+        segment.add(product(4L, "APL-IP15P-256", "Apple iPhone 15 Pro", "Pro", 1L, "999.00", "Apple"));
+        segment.add(product(1L, "APL-IP15-128", "Apple iPhone 15", "Price drop", 1L, "699.00", "Apple"));
+
+        // When
+        SearchHits cheapest = segment.browseByPrice(1L, new BigDecimal("500"), new BigDecimal("950"), true, 0, 10);
+        SearchHits priciest = segment.browseByPrice(1L, null, null, false, 0, 2);
+        SearchHits all = segment.browseByPrice(null, new BigDecimal("1099.00"), null, true, 0, 10);
+
+        // Then
+        assertThat(cheapest.productIds()).containsExactly(1L, 2L);
+        assertThat(priciest.productIds()).containsExactly(4L, 2L);
+        assertThat(priciest.total()).isEqualTo(3);
+        assertThat(all.productIds()).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Should count spec values, ignoring the facet's own selection")
+    void shouldCountFacets() {
+        // Given
+        segment.add(withSpecs(1L, "8GB", "Black"));
+        segment.add(withSpecs(2L, "8GB", "Blue"));
+        segment.add(withSpecs(4L, "16GB", "Black"));
+        SearchCriteria blackOnly = new SearchCriteria("phone", null, null, null,
+                Map.of(SpecFacet.COLOR, Set.of("Black")));
+
+        // When
+        SearchHits hits = segment.search(blackOnly, 0, 10);
+
+        // Then
+        assertThat(hits.productIds()).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(hits.facets().get("ram")).containsExactly(Map.entry("16GB", 1L), Map.entry("8GB", 1L));
+        assertThat(hits.facets().get("color")).containsExactly(Map.entry("Black", 2L), Map.entry("Blue", 1L));
+    }
+
+    private static SearchCriteria criteria(String keyword, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+        return new SearchCriteria(keyword, categoryId, minPrice, maxPrice, Map.of());
+    }
+
+    private static Product withSpecs(Long id, String ram, String color) {
+        Product product = product(id, "SKU-" + id, "Phone " + id, "phone", 1L, "500.00", "Brand");
+        product.getSpecs().setRam(ram);
+        product.getSpecs().setColor(color);
+        return product;
+    }
+
+    private static Product product(Long id, String sku, String name, String description,
+                                   Long categoryId, String price, String brand) {
+        Category category = new Category();
+        category.setId(categoryId);
+        Product product = Product.builder()
+                .id(id)
+                .sku(sku)
+                .name(name)
+                .description(description)
+                .basePrice(new BigDecimal(price))
+                .category(category)
+                .isActive(true)
+                .build();
+        product.setSpecs(ProductSpecs.builder().brand(brand).build());
+        return product;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.zylo.product.search;
+
+import com.example.zylo.product.entity.Category;
+import com.example.zylo.product.entity.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Category + price range + price sort, first page of 20, over 100k and 1M products (50 categories)
+// linearScan: filter + sort over every product, what the Specification query does without a usable index
+// priceIndex: slice of the category's sorted price index (IndexSegment.browseByPrice)
+// keywordWithPrice: inverted index search with the same category / price filters
+//
+// Run main() from the IDE, or after mvn test-compile:
+//   java -cp <test classpath> org.openjdk.jmh.Main ProductSearchBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductSearchBenchmark {
+
+    private static final int CATEGORIES = 50;
+    private static final String[] WORDS = {"phone", "laptop", "tablet", "watch", "camera", "speaker", "monitor", "router"};
+
+    @Param({"100000", "1000000"})
+    private int products;
+
+    private IndexSegment segment;
+    private long[] categoryIds;
+    private long[] priceCents;
+
+    private final BigDecimal minPrice = new BigDecimal("200");
+    private final BigDecimal maxPrice = new BigDecimal("800");
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        segment = new IndexSegment();
+        categoryIds = new long[products];
+        priceCents = new long[products];
+
+        for (int i = 0; i < products; i++) {
+            Category category = new Category();
+            category.setId((long) random.nextInt(CATEGORIES));
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(200_000), 2);
+            String word = WORDS[random.nextInt(WORDS.length)];
+
+            segment.add(Product.builder()
+                    .id((long) i + 1)
+                    .sku("SKU-" + i)
+                    .name("Brand" + random.nextInt(100) + " " + word + " " + i)
+                    .basePrice(price)
+                    .category(category)
+                    .isActive(true)
+                    .build());
+            categoryIds[i] = category.getId();
+            priceCents[i] = IndexSegment.cents(price);
+        }
+        segment.seal();
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole bh) {
+        long min = IndexSegment.cents(minPrice);
+        long max = IndexSegment.cents(maxPrice);
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < products; i++) {
+            if (categoryIds[i] == 7 && priceCents[i] >= min && priceCents[i] <= max) {
+                matches.add(i);
+            }
+        }
+        matches.sort(Comparator.comparingLong(i -> priceCents[i]));
+        bh.consume(matches.subList(0, Math.min(20, matches.size())));
+        bh.consume(matches.size());
+    }
+
+    @Benchmark
+    public SearchHits priceIndex() {
+        return segment.browseByPrice(7L, minPrice, maxPrice, true, 0, 20);
+    }
+
+    @Benchmark
+    public SearchHits keywordWithPrice() {
+        return segment.search(new SearchCriteria("phone", 7L, minPrice, maxPrice, Map.of()), 0, 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ProductSearchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
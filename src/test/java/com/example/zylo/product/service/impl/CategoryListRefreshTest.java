@@ -0,0 +1,110 @@
+package com.example.zylo.product.service.impl;
+
+import com.example.zylo.common.cache.StampedeProtectedCache;
+import com.example.zylo.product.cache.CatalogGenerations;
+import com.example.zylo.product.dto.categoryDtos.CategoryResponse;
+import com.example.zylo.product.entity.Category;
+import com.example.zylo.product.repository.CategoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Background refresh of the "categories" cache (stale-while-revalidate) against H2
+// The refresh runs the real loader on a pool thread with no open session, everything mapToResponse reads
+// (parent names) has to come from the query there, a failing refresh is only logged and keeps the stale list
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:zylo;MODE=MySQL;NON_KEYWORDS=USER;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// Committed data, the refresh thread can't see the test's transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CategoryListRefreshTest {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private CategoryServiceImpl categoryService;
+    private final ExecutorService refreshPool = Executors.newSingleThreadExecutor();
+    private Category parent;
+    private Category child;
+
+    @BeforeEach
+    void setUp() {
+        categoryService = new CategoryServiceImpl(categoryRepository, mock(CatalogGenerations.class));
+
+        parent = categoryRepository.save(Category.builder()
+                .name("Electronics")
+                .slug("electronics")
+                .isActive(true)
+                .displayOrder(0)
+                .build());
+        child = categoryRepository.save(Category.builder()
+                .name("Phones")
+                .slug("phones")
+                .parent(parent)
+                .isActive(true)
+                .displayOrder(1)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshPool.shutdownNow();
+        categoryRepository.delete(child);
+        categoryRepository.delete(parent);
+    }
+
+    @Test
+    @DisplayName("Should refresh the stale category list in the background with parent names")
+    @SuppressWarnings("unchecked")
+    void shouldRefreshStaleCategoriesOnPoolThread() throws InterruptedException {
+        // Given: entry past its soft TTL, this node gets the refresh lock
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        StampedeProtectedCache cache = new StampedeProtectedCache(new ConcurrentMapCache("categories"),
+                redisTemplate, mock(RedisScript.class), refreshPool, Duration.ZERO, Duration.ofSeconds(5), 1.0,
+                null, new SimpleMeterRegistry());
+        cache.put("all", List.of(CategoryResponse.builder().id(parent.getId()).name("Stale").build()));
+
+        // When
+        List<CategoryResponse> served = cache.get("all", () -> categoryService.getAllCategories());
+        refreshPool.shutdown();
+        assertThat(refreshPool.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        List<CategoryResponse> refreshed = cache.get("all", List.class);
+        assertThat(served).extracting(CategoryResponse::getName).containsExactly("Stale");
+        assertThat(refreshed).extracting(CategoryResponse::getName).containsExactly("Electronics", "Phones");
+        assertThat(refreshed.get(1).getParentName()).isEqualTo("Electronics");
+    }
+}
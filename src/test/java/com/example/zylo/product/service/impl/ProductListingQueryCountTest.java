@@ -0,0 +1,176 @@
+package com.example.zylo.product.service.impl;
+
+import com.example.zylo.common.dto.CursorPage;
+import com.example.zylo.product.cache.CatalogCache;
+import com.example.zylo.product.cache.ProductSnapshotStore;
+import com.example.zylo.product.dto.productDtos.ProductCursor;
+import com.example.zylo.product.dto.productDtos.ProductCardResponse;
+import com.example.zylo.product.dto.productDtos.ProductSearchRequest;
+import com.example.zylo.product.entity.Category;
+import com.example.zylo.product.entity.Product;
+import com.example.zylo.product.entity.ProductSpecs;
+import com.example.zylo.product.repository.CategoryRepository;
+import com.example.zylo.product.repository.ProductRepository;
+import com.example.zylo.product.repository.ProductSpecsRepository;
+import com.example.zylo.product.search.ProductSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// SQL statements per listing page, against H2
+// Listings select card columns (category joined in the same query), lazy loading category and specs
+// per product would be 1 + 20 + 20 statements for a page of 20
+@DataJpaTest(properties = {
+        // MySQL mode, and "user" is a table name here
+        "spring.datasource.url=jdbc:h2:mem:zylo;MODE=MySQL;NON_KEYWORDS=USER;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ProductListingQueryCountTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSpecsRepository productSpecsRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private ProductServiceImpl productService;
+    private Statistics statistics;
+    private Long categoryId;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Caches / search index pass straight through to the DB loaders
+        CatalogCache catalogCache = mock(CatalogCache.class);
+        when(catalogCache.allProducts(any(), any()))
+                .thenAnswer(invocation -> ((Supplier<Page<ProductCardResponse>>) invocation.getArgument(1)).get());
+        when(catalogCache.search(any(), any(), any()))
+                .thenAnswer(invocation -> ((Supplier<Page<ProductCardResponse>>) invocation.getArgument(2)).get());
+        productService = new ProductServiceImpl(productRepository, productSpecsRepository, categoryRepository,
+                catalogCache, mock(ProductSearchIndex.class), mock(ProductSnapshotStore.class), JsonMapper.builder().build());
+
+        // 25 products in 5 categories, each with specs
+        for (int c = 0; c < 5; c++) {
+            Category category = entityManager.persist(Category.builder()
+                    .name("Category " + c)
+                    .slug("category-" + c)
+                    .isActive(true)
+                    .build());
+            categoryId = category.getId();
+
+            for (int p = 0; p < 5; p++) {
+                Product product = entityManager.persist(Product.builder()
+                        .sku("SKU-" + c + "-" + p)
+                        .name("Product " + c + "-" + p)
+                        .basePrice(BigDecimal.valueOf(100 + c * 10 + p))
+                        .stockQuantity(50)
+                        .isActive(true)
+                        .category(category)
+                        .build());
+                entityManager.persist(ProductSpecs.builder()
+                        .product(product)
+                        .ram("8GB")
+                        .color("Black")
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Should load a page of cards with their category in one query (plus the count)")
+    void shouldFetchPageInOneQuery() {
+        // When
+        Page<ProductCardResponse> page = productService.getAllProducts(
+                PageRequest.of(0, PAGE_SIZE, Sort.by("createdAt").descending()));
+
+        // Then
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getContent()).allSatisfy(product ->
+                assertThat(product.getCategory().getName()).startsWith("Category"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should load slice and cursor pages in one query each")
+    void shouldFetchSliceAndCursorPagesInOneQuery() {
+        // When
+        Slice<ProductCardResponse> slice = productService.getProductsByCategorySlice(
+                categoryId, PageRequest.of(0, PAGE_SIZE, Sort.by("createdAt").descending()));
+        long sliceStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        CursorPage<ProductCardResponse> first = productService.scrollProducts(null, ProductCursor.Order.PRICE_ASC, null, PAGE_SIZE);
+        CursorPage<ProductCardResponse> second = productService.scrollProducts(
+                null, ProductCursor.Order.PRICE_ASC, first.getNextCursor(), PAGE_SIZE);
+
+        // Then
+        assertThat(slice.getContent()).hasSize(5);
+        assertThat(sliceStatements).isEqualTo(1);
+        assertThat(first.getContent()).hasSize(PAGE_SIZE);
+        assertThat(second.getContent()).hasSize(5);
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getContent().get(0).getPrice()).isGreaterThan(first.getContent().get(19).getPrice());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should load filtered search pages in one query (plus the count)")
+    void shouldFetchSearchPageInOneQuery() {
+        // Given
+        ProductSearchRequest request = new ProductSearchRequest();
+        request.setMinPrice(new BigDecimal("110"));
+        request.setSortBy("price");
+        request.setSortDir("asc");
+
+        // When
+        Page<ProductCardResponse> page = productService.searchProducts(request).getProducts();
+
+        // Then
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getContent().get(0).getPrice()).isEqualByComparingTo("110");
+        assertThat(page.getContent()).allSatisfy(product -> assertThat(product.getCategory()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.zylo.product.web;
+
+import com.example.zylo.product.cache.CatalogGenerations;
+import com.example.zylo.product.search.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogConditionalRequestInterceptorTest {
+
+    @Mock
+    private CatalogGenerations generations;
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    private CatalogConditionalRequestInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new CatalogConditionalRequestInterceptor(generations, searchIndex,
+                "public, no-cache", "public, max-age=30", "public, max-age=300");
+    }
+
+    @Test
+    @DisplayName("Should answer 304 without calling the controller when the listing generation is unchanged")
+    void shouldShortCircuitMatchingListingRequest() {
+        // Given
+        when(generations.category(3L)).thenReturn(7L);
+        MockHttpServletRequest request = get("/api/products/category/{categoryId}", Map.of("categoryId", "3"));
+        request.addHeader("If-None-Match", "\"category-3-g7\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        boolean proceed = interceptor.preHandle(request, response, new Object());
+
+        // Then
+        assertThat(proceed).isFalse();
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader("ETag")).isEqualTo("\"category-3-g7\"");
+        assertThat(response.getHeader("Cache-Control")).isEqualTo("public, no-cache");
+    }
+
+    @Test
+    @DisplayName("Should send the full response with the new ETag after a catalog write")
+    void shouldProceedWhenGenerationMoved() {
+        // Given
+        when(generations.all()).thenReturn(8L);
+        MockHttpServletRequest request = get("/api/products", Map.of());
+        request.addHeader("If-None-Match", "\"products-g7\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        boolean proceed = interceptor.preHandle(request, response, new Object());
+
+        // Then
+        assertThat(proceed).isTrue();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("ETag")).isEqualTo("\"products-g8\"");
+    }
+
+    @Test
+    @DisplayName("Should change the search ETag once this node's index applied the change")
+    void shouldTieSearchETagToIndexVersion() {
+        // Given: generation already bumped, the index re-indexes the product afterwards
+        when(generations.all()).thenReturn(8L);
+        when(searchIndex.version()).thenReturn("n1.41", "n1.42");
+        MockHttpServletResponse beforeReindex = new MockHttpServletResponse();
+        MockHttpServletRequest again = get("/api/products/search", Map.of());
+        again.addHeader("If-None-Match", "\"search-g8-in1.41\"");
+        MockHttpServletResponse afterReindex = new MockHttpServletResponse();
+
+        // When
+        interceptor.preHandle(get("/api/products/search", Map.of()), beforeReindex, new Object());
+        boolean proceed = interceptor.preHandle(again, afterReindex, new Object());
+
+        // Then: the ETag handed out with the stale body doesn't validate anymore
+        assertThat(beforeReindex.getHeader("ETag")).isEqualTo("\"search-g8-in1.41\"");
+        assertThat(proceed).isTrue();
+        assertThat(afterReindex.getHeader("ETag")).isEqualTo("\"search-g8-in1.42\"");
+    }
+
+    @Test
+    @DisplayName("Should leave product details to the snapshot ETag and skip writes")
+    void shouldOnlySetCacheControlForProductDetails() {
+        // Given
+        MockHttpServletRequest details = get("/api/products/{id}", Map.of("id", "5"));
+        MockHttpServletResponse detailsResponse = new MockHttpServletResponse();
+        MockHttpServletRequest write = new MockHttpServletRequest("POST", "/api/products");
+        write.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/products");
+
+        // When
+        boolean detailsProceed = interceptor.preHandle(details, detailsResponse, new Object());
+        boolean writeProceed = interceptor.preHandle(write, new MockHttpServletResponse(), new Object());
+
+        // Then
+        assertThat(detailsProceed).isTrue();
+        assertThat(writeProceed).isTrue();
+        assertThat(detailsResponse.getHeader("ETag")).isNull();
+        assertThat(detailsResponse.getHeader("Cache-Control")).isEqualTo("public, max-age=30");
+        verifyNoInteractions(generations);
+    }
+
+    private static MockHttpServletRequest get(String pattern, Map<String, String> uriVariables) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, uriVariables);
+        return request;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.zylo.user.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LastLoginTrackerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private LastLoginTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        // Not started: flushes only when the test calls flush()
+        tracker = new LastLoginTracker(jdbcTemplate, new SimpleMeterRegistry(), 2, Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("Should coalesce logins per user and write them in one UPDATE per batch")
+    void shouldCoalesceAndBatch() {
+        // Given
+        LocalDateTime first = LocalDateTime.of(2026, 1, 1, 9, 0);
+        LocalDateTime later = first.plusMinutes(5);
+        tracker.record(1L, first);
+        tracker.record(1L, later);
+
+        // When
+        int written = tracker.flush();
+
+        // Then (one row for user 1, with the latest timestamp)
+        assertThat(written).isEqualTo(1);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).update(startsWith("UPDATE user SET last_login_at = CASE id"), args.capture());
+        assertThat(args.getValue()).containsExactly(1L, Timestamp.valueOf(later), 1L);
+
+        // Nothing left for the next flush
+        assertThat(tracker.flush()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep timestamps pending when the write fails")
+    void shouldKeepPendingOnFailure() {
+        // Given
+        tracker.record(1L, LocalDateTime.now());
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(1);
+
+        // When/Then
+        assertThatThrownBy(() -> tracker.flush()).hasMessage("db down");
+        assertThat(tracker.flush()).isEqualTo(1);
+    }
+}